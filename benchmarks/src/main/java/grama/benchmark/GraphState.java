@@ -0,0 +1,91 @@
+package grama.benchmark;
+
+import grama.generator.GraphGenerator;
+import grama.model.Graph;
+import grama.model.LoadGraphException;
+import grama.model.Node;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The state shared by the benchmarks : a synthetic road network of <code>nodes</code> <code>Nodes</code> written by <code>GraphGenerator</code> with the given <code>density</code>, and pairs of <code>Nodes</code> drawn at random
+ * <p>The pairs are always drawn with the same seed, so two runs measure the same queries</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+
+	/**
+	 * The number of pairs the benchmarks go through
+	 */
+	public static final int PAIRS = 1024;
+
+	@Param({"1000", "10000", "100000"})
+	public int nodes;
+
+	@Param({"0.3", "1.0"})
+	public double density;
+
+	public Path file;
+	public Graph graph;
+	public Node[] departures = new Node[PAIRS];
+	public Node[] arrivals = new Node[PAIRS];
+
+	/**
+	 * Writes and loads the graph, then draws the pairs
+	 * @throws IOException If the file can't be written
+	 * @throws LoadGraphException If the file can't be loaded
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, LoadGraphException {
+		file = Files.createTempFile("grama-" + nodes + "-" + density + "-", ".csv");
+		new GraphGenerator(nodes, 42, density).write(file);
+		graph = new Graph();
+		graph.load(file.toString());
+
+		List<Node> all = graph.getNodes();
+		Random random = new Random(42);
+		for (int i = 0; i < PAIRS; i++) {
+			departures[i] = all.get(random.nextInt(all.size()));
+			arrivals[i] = all.get(random.nextInt(all.size()));
+		}
+	}
+
+	/**
+	 * Deletes the file of the graph
+	 * @throws IOException If the file can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * The position of a thread in the pairs
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		private int next = 0;
+
+		/**
+		 * @return Returns the index of the next pair, going back to the first one after the last
+		 */
+		public int next() {
+			next = (next + 1) & (PAIRS - 1);
+			return next;
+		}
+
+	}
+
+}
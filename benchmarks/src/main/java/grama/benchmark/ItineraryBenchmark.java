@@ -0,0 +1,75 @@
+package grama.benchmark;
+
+import grama.model.CounterNodeType;
+import grama.model.ItineraryException;
+import grama.model.Link;
+import grama.model.LinkType;
+import grama.model.NodeType;
+import grama.model.TypeFilter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the itineraries between the random pairs of <code>Nodes</code>
+ * <p>The caches of the <code>Graph</code> are kept from one call to the next, as in the application : with <code>GraphState.PAIRS</code> departures the trees of the big graphs don't all fit in the cache</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItineraryBenchmark {
+
+	private static final TypeFilter<NodeType> ALL_NODES = TypeFilter.all(NodeType.class);
+	private static final TypeFilter<LinkType> ALL_LINKS = TypeFilter.all(LinkType.class);
+
+	@Benchmark
+	public List<Link> shortestItinerary(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		try {
+			return state.graph.getShortestItinerary(state.departures[i], state.arrivals[i]);
+		} catch (ItineraryException e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public List<Link> shortestItineraryWithoutCache(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		try {
+			return state.graph.getSnapshot().searchShortestItinerary(state.departures[i], state.arrivals[i], ALL_NODES, ALL_LINKS);
+		} catch (ItineraryException e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public int shortestDistance(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		try {
+			return state.graph.getShortestDistance(state.departures[i], state.arrivals[i], ALL_NODES, ALL_LINKS);
+		} catch (ItineraryException e) {
+			return -1;
+		}
+	}
+
+	@Benchmark
+	public List<Link> shortestItineraryWithObjective(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		try {
+			return state.graph.getShortestItinerary(state.departures[i], state.arrivals[i], ALL_NODES, ALL_LINKS, new CounterNodeType(1, 1, 0));
+		} catch (ItineraryException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package grama.benchmark;
+
+import grama.model.Link;
+import grama.model.LinkType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the lists of <code>Links</code> of the <code>Graph</code>, the distinct ones being computed once by the loading
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinksBenchmark {
+
+	@Benchmark
+	public List<Link> distinctLinks(GraphState state) {
+		return state.graph.getDistinctLinks();
+	}
+
+	@Benchmark
+	public List<Link> distinctLinksByType(GraphState state) {
+		return state.graph.getDistinctLinks(LinkType.HIGHWAY);
+	}
+
+	@Benchmark
+	public List<Link> links(GraphState state) {
+		return state.graph.getLinks();
+	}
+
+}
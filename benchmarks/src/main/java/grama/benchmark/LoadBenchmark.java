@@ -0,0 +1,33 @@
+package grama.benchmark;
+
+import grama.model.Graph;
+import grama.model.LoadGraphException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the loading of a file, with the indexing of the <code>Graph</code>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+	@Benchmark
+	public Graph load(GraphState state) throws LoadGraphException {
+		Graph graph = new Graph();
+		graph.load(state.file.toString());
+		return graph;
+	}
+
+}
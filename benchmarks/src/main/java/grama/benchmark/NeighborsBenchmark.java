@@ -0,0 +1,60 @@
+package grama.benchmark;
+
+import grama.model.LinkType;
+import grama.model.Node;
+import grama.model.NodeType;
+import grama.model.TypeFilter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the neighbors of the random <code>Nodes</code>, and of the comparisons between them
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighborsBenchmark {
+
+	private static final TypeFilter<NodeType> ALL_NODES = TypeFilter.all(NodeType.class);
+	private static final TypeFilter<LinkType> ALL_LINKS = TypeFilter.all(LinkType.class);
+
+	@Benchmark
+	public Map<Node, Integer> neighborsMapTwoJumps(GraphState state, GraphState.Cursor cursor) {
+		return state.departures[cursor.next()].getNeighborsMap(ALL_LINKS, 2);
+	}
+
+	@Benchmark
+	public Map<Node, Integer> neighborsMapAll(GraphState state, GraphState.Cursor cursor) {
+		return state.departures[cursor.next()].getNeighborsMap(ALL_LINKS);
+	}
+
+	@Benchmark
+	public boolean isTwoDistanceByNode(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		return state.departures[i].isTwoDistance(state.arrivals[i], ALL_NODES, ALL_LINKS);
+	}
+
+	@Benchmark
+	public boolean isTwoDistanceByGraph(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		return state.graph.isTwoDistance(state.departures[i], state.arrivals[i], ALL_NODES, ALL_LINKS);
+	}
+
+	@Benchmark
+	public int isMoreLinkedToType(GraphState state, GraphState.Cursor cursor) {
+		int i = cursor.next();
+		return state.departures[i].isMoreLinkedToType(state.arrivals[i], NodeType.RESTAURANT);
+	}
+
+}
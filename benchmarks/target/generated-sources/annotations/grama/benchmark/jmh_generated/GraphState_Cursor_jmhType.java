@@ -0,0 +1,4 @@
+package grama.benchmark.jmh_generated;
+public class GraphState_Cursor_jmhType extends GraphState_Cursor_jmhType_B3 {
+}
+
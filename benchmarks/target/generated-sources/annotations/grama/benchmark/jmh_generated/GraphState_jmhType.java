@@ -0,0 +1,4 @@
+package grama.benchmark.jmh_generated;
+public class GraphState_jmhType extends GraphState_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package grama.benchmark.jmh_generated;
+public class ItineraryBenchmark_jmhType extends ItineraryBenchmark_jmhType_B3 {
+}
+
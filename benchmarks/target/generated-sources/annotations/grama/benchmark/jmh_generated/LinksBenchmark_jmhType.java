@@ -0,0 +1,4 @@
+package grama.benchmark.jmh_generated;
+public class LinksBenchmark_jmhType extends LinksBenchmark_jmhType_B3 {
+}
+
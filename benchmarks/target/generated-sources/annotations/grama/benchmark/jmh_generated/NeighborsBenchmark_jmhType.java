@@ -0,0 +1,4 @@
+package grama.benchmark.jmh_generated;
+public class NeighborsBenchmark_jmhType extends NeighborsBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,229 @@
+package grama.batch;
+
+import grama.model.CounterNodeType;
+import grama.model.Graph;
+import grama.model.GraphSnapshot;
+import grama.model.ItineraryException;
+import grama.model.Link;
+import grama.model.LinkType;
+import grama.model.LoadGraphException;
+import grama.model.Node;
+import grama.model.NodeType;
+import grama.model.TypeFilter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class solving a file of itineraries in parallel, the results being written in the order of the file
+ * <p>Each row of the input is <code>departure|arrival[|nodeTypes|linkTypes[|cities:restaurants:recreations]]</code>, the types being their first letters like <code>VRL</code> and <code>AND</code>, all the types if they're empty. Each row of the output is, in the same order :</p>
+ * <blockquote><code>departure|arrival|distance|linkCategory:linkDistance:linkDestination|...</code></blockquote>
+ * <p>or <code>departure|arrival|ERREUR|message</code> if the itinerary isn't possible. The rows are read by blocks and only a few blocks are in progress at once, so the memory used doesn't depend on the size of the file. Every itinerary, with an objective or not, is searched in the reusable workspace of its worker instead of the caches of the snapshot</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class ItineraryBatch {
+
+	/**
+	 * The number of rows solved together by a worker
+	 */
+	public static final int BLOCK_SIZE = 4096;
+
+	// the delay between two reports of the progress, in nanoseconds
+	private static final long REPORT_DELAY = 5_000_000_000L;
+
+	private final Graph graph;
+	private final int threads;
+
+	/**
+	 * @param graph The <code>Graph</code> queried, loaded beforehand
+	 * @param threads The number of workers
+	 */
+	public ItineraryBatch(Graph graph, int threads) {
+		this.graph = graph;
+		this.threads = threads;
+	}
+
+	/**
+	 * Solves all the rows of <code>input</code> on the same snapshot of the graph, and writes their results in <code>output</code>
+	 * @param input The rows of the itineraries
+	 * @param output The results
+	 * @return Returns the number of rows solved
+	 * @throws IOException If the input can't be read or the output written
+	 */
+	public long run(BufferedReader input, Writer output) throws IOException {
+		GraphSnapshot snapshot = graph.getSnapshot();
+		AtomicInteger count = new AtomicInteger();
+		ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "grama-batch-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		// the blocks in progress in the order of the input, the reading waits for the first one when there are too many
+		Queue<Future<String>> blocks = new ArrayDeque<>();
+		long rows = 0;
+		long start = System.nanoTime();
+		long lastReport = start;
+		try {
+			List<String> block = new ArrayList<>(BLOCK_SIZE);
+			String row;
+			while ((row = input.readLine()) != null) {
+				if (row.isBlank())
+					continue;
+				block.add(row);
+				rows++;
+				if (block.size() == BLOCK_SIZE) {
+					List<String> full = block;
+					blocks.add(workers.submit(() -> solve(snapshot, full)));
+					block = new ArrayList<>(BLOCK_SIZE);
+				}
+				if (blocks.size() > 2 * threads)
+					output.write(take(blocks));
+
+				if (System.nanoTime() - lastReport > REPORT_DELAY) {
+					lastReport = System.nanoTime();
+					report(rows, lastReport - start);
+				}
+			}
+			if (!block.isEmpty()) {
+				List<String> last = block;
+				blocks.add(workers.submit(() -> solve(snapshot, last)));
+			}
+			while (!blocks.isEmpty())
+				output.write(take(blocks));
+			output.flush();
+		} finally {
+			workers.shutdownNow();
+		}
+
+		report(rows, System.nanoTime() - start);
+		return rows;
+	}
+
+	/**
+	 * @param blocks The blocks in progress
+	 * @return Returns the results of the first block, once it's solved
+	 * @throws IOException If the block couldn't be solved
+	 */
+	private static String take(Queue<Future<String>> blocks) throws IOException {
+		try {
+			return blocks.poll().get();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * @param snapshot The snapshot the itineraries are searched on
+	 * @param rows The rows of a block
+	 * @return Returns the results of the rows, one line each
+	 */
+	private static String solve(GraphSnapshot snapshot, List<String> rows) {
+		StringBuilder results = new StringBuilder(rows.size() * 64);
+		for (String row: rows)
+			solve(snapshot, row, results);
+		return results.toString();
+	}
+
+	/**
+	 * Appends the result of one row
+	 * @param snapshot The snapshot the itinerary is searched on
+	 * @param row The row of the itinerary
+	 * @param results The results of the block
+	 */
+	private static void solve(GraphSnapshot snapshot, String row, StringBuilder results) {
+		String[] columns = row.split("\\|", -1);
+		results.append(columns[0]).append('|').append(columns.length > 1 ? columns[1] : "").append('|');
+		try {
+			if (columns.length < 2 || columns.length > 5)
+				throw new IllegalArgumentException("La ligne doit être de la forme départ|arrivée[|noeuds|liens[|objectif]]");
+
+			Node departure = getNode(snapshot, columns[0]);
+			Node arrival = getNode(snapshot, columns[1]);
+			TypeFilter<NodeType> nodeTypes = TypeFilter.parseNodes(columns.length > 2 ? columns[2].trim() : "");
+			TypeFilter<LinkType> linkTypes = TypeFilter.parseLinks(columns.length > 3 ? columns[3].trim() : "");
+
+			// the itineraries are searched in the workspace of the worker, they're too many to cache their trees
+			List<Link> path = columns.length > 4 && !columns[4].isBlank()
+					? snapshot.searchShortestItinerary(departure, arrival, nodeTypes, linkTypes, CounterNodeType.parse(columns[4].trim()))
+					: snapshot.searchShortestItinerary(departure, arrival, nodeTypes, linkTypes);
+
+			results.append(snapshot.getDistancePath(path));
+			for (Link link: path)
+				results.append('|').append(link.getType().getCharID()).append(':').append(link.getDistance()).append(':').append(link.getDestination().getName());
+		} catch (ItineraryException | IllegalArgumentException e) {
+			results.append("ERREUR|").append(e.getMessage());
+		}
+		results.append('\n');
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param name The name of the <code>Node</code>, the case and the accents being ignored
+	 * @return Returns the <code>Node</code> of <code>snapshot</code> with this name
+	 * @throws ItineraryException If there's no <code>Node</code> with this name
+	 */
+	private static Node getNode(GraphSnapshot snapshot, String name) throws ItineraryException {
+		Node node = snapshot.findNode(name.trim());
+		if (node == null)
+			throw new ItineraryException("Le noeud " + name + " n'existe pas");
+		return node;
+	}
+
+	/**
+	 * Writes the progress on the error output, so it's not mixed with the results
+	 * @param rows The number of rows read
+	 * @param elapsed The time elapsed since the beginning, in nanoseconds
+	 */
+	private static void report(long rows, long elapsed) {
+		double seconds = elapsed / 1e9;
+		System.err.printf(Locale.ROOT, "%d itinéraires en %.1f s (%.0f itinéraires/s)%n", rows, seconds, seconds > 0 ? rows / seconds : 0);
+	}
+
+	/**
+	 * Solves a file of itineraries
+	 * @param args The file of the graph, the file of the itineraries, the file of the results, then optionally the number of workers
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.err.println("Utilisation : ItineraryBatch graphe itinéraires résultats [threads]");
+			System.exit(2);
+		}
+
+		try {
+			int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+			Graph graph = new Graph();
+			graph.load(args[0]);
+
+			try (BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+				 Writer output = new BufferedWriter(Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8), 1 << 16)) {
+				new ItineraryBatch(graph, threads).run(input, output);
+			}
+		} catch (LoadGraphException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("Les itinéraires n'ont pas pu être calculés : " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * The package containing the classes solving many queries on a graph from the command line, without the graphical interface
+ */
+package grama.batch;
\ No newline at end of file
@@ -0,0 +1,267 @@
+package grama.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * The class generating the file of a synthetic road network of any size, in the format read by <code>Graph.load</code>
+ * <p>The <code>Nodes</code> are on a square grid, each one moved at random inside its cell. A <code>Node</code> is linked to its neighbors of the same row, to the ones of the same column most of the time, and sometimes to one of its diagonal neighbors, a cell never having both diagonals so the roads don't cross. Every 16th row and column is a highway, every 4th other one a national road, the other roads being departmental</p>
+ * <p>Everything about a <code>Node</code> or a <code>Link</code> is computed from its position and the seed, never stored : a <code>Link</code> is the same seen from both ends, and a file of millions of <code>Nodes</code> is written with a constant memory</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class GraphGenerator {
+
+	/**
+	 * The density of the roads by default
+	 */
+	public static final double DEFAULT_DENSITY = 0.7;
+
+	// the rows and the columns of highways, then of national roads
+	private static final int HIGHWAY_SPACING = 16;
+	private static final int NATIONAL_SPACING = 4;
+
+	// the distance between two cells in kilometers, and how far a Node may move inside its cell
+	private static final double CELL_KILOMETERS = 4;
+	private static final double JITTER = 0.7;
+
+	private static final long TYPE = 1;
+	private static final long X = 2;
+	private static final long Y = 3;
+	private static final long VERTICAL = 4;
+	private static final long DIAGONAL = 5;
+
+	private final int nodes;
+	private final int side;
+	private final long seed;
+	private final double density;
+
+	/**
+	 * @param nodes The number of <code>Nodes</code>
+	 * @param seed The seed of the random choices, the same seed giving the same graph
+	 */
+	public GraphGenerator(int nodes, long seed) {
+		this(nodes, seed, DEFAULT_DENSITY);
+	}
+
+	/**
+	 * @param nodes The number of <code>Nodes</code>
+	 * @param seed The seed of the random choices, the same seed giving the same graph
+	 * @param density Between 0 and 1, the probability of the roads between two rows and half the probability of a diagonal road in a cell : the average degree is about <code>2 + 3 * density</code>
+	 */
+	public GraphGenerator(int nodes, long seed, double density) {
+		if (nodes < 1)
+			throw new IllegalArgumentException("Le graphe doit avoir au moins un noeud");
+		if (density < 0 || density > 1)
+			throw new IllegalArgumentException("La densité doit être comprise entre 0 et 1");
+		this.nodes = nodes;
+		this.side = (int)Math.ceil(Math.sqrt(nodes));
+		this.seed = seed;
+		this.density = density;
+	}
+
+	/**
+	 * @return Returns the number of <code>Nodes</code>
+	 */
+	public int getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @param i The number of a <code>Node</code>
+	 * @return Returns the letter of its type, about 60 % of cities, 20 % of restaurants and 20 % of recreations
+	 */
+	public char getType(int i) {
+		double draw = random(i, TYPE);
+		return draw < 0.6 ? 'V' : draw < 0.8 ? 'R' : 'L';
+	}
+
+	/**
+	 * @param i The number of a <code>Node</code>
+	 * @return Returns its name, unique in the graph
+	 */
+	public String getName(int i) {
+		switch (getType(i)) {
+			case 'V': return "Ville-" + i;
+			case 'R': return "Restaurant-" + i;
+			default: return "Loisir-" + i;
+		}
+	}
+
+	/**
+	 * @param i The number of a <code>Node</code>
+	 * @return Returns its horizontal position, between 0 and 1
+	 */
+	public double getX(int i) {
+		return (i % side + 0.5 + (random(i, X) - 0.5) * JITTER) / side;
+	}
+
+	/**
+	 * @param i The number of a <code>Node</code>
+	 * @return Returns its vertical position, between 0 and 1
+	 */
+	public double getY(int i) {
+		return (i / side + 0.5 + (random(i, Y) - 0.5) * JITTER) / side;
+	}
+
+	/**
+	 * Writes the row of the <code>Node</code> <code>i</code>, with its <code>Links</code>
+	 * @param i The number of the <code>Node</code>
+	 * @param row The row, emptied first
+	 * @return Returns <code>row</code>
+	 */
+	public StringBuilder getRow(int i, StringBuilder row) {
+		row.setLength(0);
+		row.append(getType(i)).append(':').append(getName(i)).append(':');
+		appendRatio(row, getX(i));
+		appendRatio(row.append(':'), getY(i));
+
+		int column = i % side;
+		int line = i / side;
+		// the same row and the same column
+		if (column > 0)
+			appendLink(row, i, i - 1, roadType(line));
+		if (column < side - 1 && i + 1 < nodes)
+			appendLink(row, i, i + 1, roadType(line));
+		if (line > 0 && hasVertical(i - side))
+			appendLink(row, i, i - side, roadType(column));
+		if (i + side < nodes && hasVertical(i))
+			appendLink(row, i, i + side, roadType(column));
+
+		// the diagonals of the four cells around the Node
+		if (getDiagonal(i) == 1)
+			appendLink(row, i, i + side + 1, 'D');
+		if (column > 0 && getDiagonal(i - 1) == 2)
+			appendLink(row, i, i + side - 1, 'D');
+		if (line > 0 && getDiagonal(i - side) == 2)
+			appendLink(row, i, i - side + 1, 'D');
+		if (line > 0 && column > 0 && getDiagonal(i - side - 1) == 1)
+			appendLink(row, i, i - side - 1, 'D');
+		return row;
+	}
+
+	/**
+	 * Writes all the rows of the graph
+	 * @param writer The destination of the rows
+	 * @throws IOException If the rows can't be written
+	 */
+	public void write(Writer writer) throws IOException {
+		StringBuilder row = new StringBuilder(256);
+		for (int i = 0; i < nodes; i++)
+			writer.append(getRow(i, row)).append('\n');
+	}
+
+	/**
+	 * Writes all the rows of the graph in a file
+	 * @param file The file, replaced if it exists
+	 * @throws IOException If the file can't be written
+	 */
+	public void write(Path file) throws IOException {
+		try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+			write(writer);
+		}
+	}
+
+	/**
+	 * @param top The number of the <code>Node</code> above the road
+	 * @return Returns <code>true</code> if there's a road between <code>top</code> and the <code>Node</code> below, always on the first column and the main roads so the graph is connected
+	 */
+	private boolean hasVertical(int top) {
+		int column = top % side;
+		return column == 0 || column % NATIONAL_SPACING == 0 || random(top, VERTICAL) < density;
+	}
+
+	/**
+	 * @param corner The number of the <code>Node</code> at the top left of a cell
+	 * @return Returns 0 if the cell has no diagonal road, 1 if it goes down to the right from <code>corner</code>, 2 if it goes up to the right from the bottom left
+	 */
+	private int getDiagonal(int corner) {
+		if (corner % side == side - 1 || corner + side + 1 >= nodes)
+			return 0;
+		double draw = random(corner, DIAGONAL);
+		if (draw >= density / 2)
+			return 0;
+		return draw < density / 4 ? 1 : 2;
+	}
+
+	/**
+	 * @param line The row of a horizontal road or the column of a vertical one
+	 * @return Returns the letter of the type of the road
+	 */
+	private static char roadType(int line) {
+		return line % HIGHWAY_SPACING == 0 ? 'A' : line % NATIONAL_SPACING == 0 ? 'N' : 'D';
+	}
+
+	/**
+	 * Appends the <code>Link</code> from <code>departure</code> to <code>destination</code>, its distance in kilometers being the one between their positions
+	 * @param row The row of <code>departure</code>
+	 * @param departure The number of the departure
+	 * @param destination The number of the destination
+	 * @param type The letter of the type of the road
+	 */
+	private void appendLink(StringBuilder row, int departure, int destination, char type) {
+		double distance = Math.hypot(getX(departure) - getX(destination), getY(departure) - getY(destination)) * side * CELL_KILOMETERS;
+		row.append('|').append(type).append(':').append(Math.max(1, Math.round(distance))).append(':').append(getName(destination));
+	}
+
+	/**
+	 * Appends a value between 0 and 1 with six decimals, without going through <code>String.format</code>
+	 * @param row The row
+	 * @param ratio The value
+	 */
+	private static void appendRatio(StringBuilder row, double ratio) {
+		long millionths = Math.min(999_999, Math.max(0, Math.round(ratio * 1_000_000)));
+		row.append("0.");
+		for (long digit = 100_000; digit > millionths && digit > 1; digit /= 10)
+			row.append('0');
+		row.append(millionths);
+	}
+
+	/**
+	 * @param i The number of a <code>Node</code>
+	 * @param salt The choice made
+	 * @return Returns a number between 0 and 1 depending only on the seed, <code>i</code> and <code>salt</code>
+	 */
+	private double random(long i, long salt) {
+		// the finalizer of SplitMix64
+		long z = seed + i * 0x9E3779B97F4A7C15L + salt * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Writes the file of a synthetic graph
+	 * @param args The number of <code>Nodes</code>, the file, then optionally the seed and the density
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Utilisation : GraphGenerator noeuds fichier [graine] [densité]");
+			System.exit(2);
+		}
+
+		try {
+			int nodes = Integer.parseInt(args[0]);
+			long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+			double density = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_DENSITY;
+
+			long start = System.nanoTime();
+			new GraphGenerator(nodes, seed, density).write(Paths.get(args[1]));
+			System.err.printf(Locale.ROOT, "%d noeuds écrits dans %s en %.1f s%n", nodes, args[1], (System.nanoTime() - start) / 1e9);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("Le fichier n'a pas pu être écrit : " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * The package containing the classes generating synthetic graphs, to measure how the application scales
+ */
+package grama.generator;
\ No newline at end of file
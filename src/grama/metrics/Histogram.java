@@ -0,0 +1,190 @@
+package grama.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class representing the distribution of positive values recorded by several threads, such as durations in nanoseconds
+ * <p>As in an HdrHistogram the values are counted in buckets growing with them: the values under 128 are exact, the bigger ones are grouped by 64 buckets per power of two, so a percentile is known within 1.6 %. Recording a value doesn't lock nor allocate anything</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class Histogram {
+
+	// the values under 2^SUB_BITS have their own bucket, then each power of two is split in HALF buckets
+	private static final int SUB_BITS = 7;
+	private static final int HALF = 1 << (SUB_BITS - 1);
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * HALF + HALF;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param value The value to record, the negative ones being recorded as 0
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts.incrementAndGet(getBucket(value));
+		sum.add(value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value));
+	}
+
+	/**
+	 * @return Returns the number of values recorded
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			count += counts.get(i);
+		return count;
+	}
+
+	/**
+	 * @return Returns the highest value recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param rank The rank of the value, between 0 and 1
+	 * @return Returns the highest value equivalent to the one at <code>rank</code>, or 0 if nothing has been recorded
+	 */
+	public long getPercentile(double rank) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			count += snapshot[i] = counts.get(i);
+		return getPercentile(snapshot, count, rank);
+	}
+
+	/**
+	 * @return Returns the count, the mean, the main percentiles and the maximum, read at once
+	 */
+	public Summary getSummary() {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			count += snapshot[i] = counts.get(i);
+		return new Summary(count, count == 0 ? 0 : sum.sum() / count, getPercentile(snapshot, count, 0.5), getPercentile(snapshot, count, 0.9), getPercentile(snapshot, count, 0.99), max.get());
+	}
+
+	/**
+	 * Forgets all the values recorded
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		sum.reset();
+		max.set(0);
+	}
+
+	/**
+	 * @param snapshot The counts of the buckets
+	 * @param count Their total
+	 * @param rank The rank of the value, between 0 and 1
+	 * @return Returns the highest value equivalent to the one at <code>rank</code>
+	 */
+	private long getPercentile(long[] snapshot, long count, double rank) {
+		if (count == 0)
+			return 0;
+		long wanted = Math.max(1, (long)Math.ceil(rank * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= wanted)
+				return Math.min(getHighest(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * @param value A positive value
+	 * @return Returns the index of its bucket
+	 */
+	static int getBucket(long value) {
+		if (value < 2 * HALF)
+			return (int)value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+		return shift * HALF + (int)(value >>> shift);
+	}
+
+	/**
+	 * @param bucket The index of a bucket
+	 * @return Returns the highest value counted in the bucket
+	 */
+	static long getHighest(int bucket) {
+		if (bucket < 2 * HALF)
+			return bucket;
+		int shift = bucket / HALF - 1;
+		long mantissa = bucket - shift * HALF;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * The summary of a <code>Histogram</code> at a given time, shown as a table by JConsole
+	 */
+	public static final class Summary {
+
+		private final long count;
+		private final long mean;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long max;
+
+		/**
+		 * @param count The number of values
+		 * @param mean Their mean
+		 * @param p50 The median
+		 * @param p90 The 90th percentile
+		 * @param p99 The 99th percentile
+		 * @param max The highest value
+		 */
+		@ConstructorProperties({"count", "mean", "p50", "p90", "p99", "max"})
+		public Summary(long count, long mean, long p50, long p90, long p99, long max) {
+			this.count = count;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getMean() {
+			return mean;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP90() {
+			return p90;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%d valeurs, moyenne %d, p50 %d, p90 %d, p99 %d, max %d", count, mean, p50, p90, p99, max);
+		}
+
+	}
+
+}
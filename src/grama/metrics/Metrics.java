@@ -0,0 +1,122 @@
+package grama.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The class representing a set of named counters and histograms, created the first time they're asked for
+ * <p>The counters and histograms are recorded without locking by the threads measured. Their values are read when they're published to the sinks or through JMX</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class Metrics implements MetricsMXBean {
+
+	private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+	private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+	private final List<MetricsSink> sinks = new CopyOnWriteArrayList<>();
+
+	private ScheduledExecutorService publisher = null;
+
+	/**
+	 * @param name The name of the counter
+	 * @return Returns the counter, created if it doesn't exist
+	 */
+	public LongAdder getCounter(String name) {
+		return counters.computeIfAbsent(name, key -> new LongAdder());
+	}
+
+	/**
+	 * @param name The name of the histogram
+	 * @return Returns the histogram, created if it doesn't exist
+	 */
+	public Histogram getHistogram(String name) {
+		return histograms.computeIfAbsent(name, key -> new Histogram());
+	}
+
+	@Override
+	public Map<String, Long> getCounters() {
+		Map<String, Long> values = new TreeMap<>();
+		counters.forEach((name, counter) -> values.put(name, counter.sum()));
+		return values;
+	}
+
+	@Override
+	public Map<String, Histogram.Summary> getHistograms() {
+		Map<String, Histogram.Summary> summaries = new TreeMap<>();
+		histograms.forEach((name, histogram) -> summaries.put(name, histogram.getSummary()));
+		return summaries;
+	}
+
+	@Override
+	public void reset() {
+		counters.values().forEach(LongAdder::reset);
+		histograms.values().forEach(Histogram::reset);
+	}
+
+	/**
+	 * @param sink The sink the measures will be published to
+	 */
+	public void addSink(MetricsSink sink) {
+		sinks.add(sink);
+	}
+
+	/**
+	 * @param sink The sink the measures won't be published to anymore
+	 */
+	public void removeSink(MetricsSink sink) {
+		sinks.remove(sink);
+	}
+
+	/**
+	 * Publishes the current measures to all the sinks
+	 */
+	public void publish() {
+		if (sinks.isEmpty())
+			return;
+		Map<String, Long> counterValues = getCounters();
+		Map<String, Histogram.Summary> summaries = getHistograms();
+		for (MetricsSink sink: sinks)
+			sink.publish(counterValues, summaries);
+	}
+
+	/**
+	 * Publishes the measures to the sinks periodically, from a daemon thread
+	 * @param period The delay between two publications
+	 * @param unit The unit of <code>period</code>
+	 * @return Returns the periodic task, to cancel to stop publishing
+	 */
+	public synchronized ScheduledFuture<?> publishEvery(long period, TimeUnit unit) {
+		if (publisher == null) {
+			publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "grama-metrics");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return publisher.scheduleAtFixedRate(this::publish, period, period, unit);
+	}
+
+	/**
+	 * Registers these measures in the platform MBean server, so JConsole shows them
+	 * @param name The name of the measures, such as <code>queries</code>
+	 * @return Returns the name of the registered MBean
+	 * @throws JMException If the MBean can't be registered, for instance if the name is already taken
+	 */
+	public ObjectName register(String name) throws JMException {
+		ObjectName objectName = new ObjectName("grama:type=Metrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+}
@@ -0,0 +1,27 @@
+package grama.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of <code>Metrics</code>, to watch the measures in JConsole
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public interface MetricsMXBean {
+
+	/**
+	 * @return Returns the values of the counters by name
+	 */
+	Map<String, Long> getCounters();
+
+	/**
+	 * @return Returns the summaries of the histograms by name
+	 */
+	Map<String, Histogram.Summary> getHistograms();
+
+	/**
+	 * Sets all the counters and the histograms back to zero
+	 */
+	void reset();
+
+}
@@ -0,0 +1,31 @@
+package grama.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * The interface of a destination of the measures, to which <code>Metrics</code> publishes them on demand or periodically
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+	/**
+	 * @param counters The values of the counters by name
+	 * @param histograms The summaries of the histograms by name
+	 */
+	void publish(Map<String, Long> counters, Map<String, Histogram.Summary> histograms);
+
+	/**
+	 * @param out The stream written
+	 * @return Returns a sink writing a line per counter and per histogram
+	 */
+	static MetricsSink printing(PrintStream out) {
+		return (counters, histograms) -> {
+			counters.forEach((name, value) -> out.println(name + " : " + value));
+			histograms.forEach((name, summary) -> out.println(name + " : " + summary));
+		};
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * The package containing the counters and histograms measuring the queries, published to pluggable sinks and through JMX
+ */
+package grama.metrics;
@@ -0,0 +1,590 @@
+package grama.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class representing the <code>Links</code> of a <code>Graph</code> compiled into primitive arrays, the <code>Nodes</code> being designated by their id
+ * <p>The <code>Links</code> leaving the <code>Node</code> of id <code>i</code> are the indexes from <code>getStart(i)</code> included to <code>getEnd(i)</code> excluded, sorted by destination</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class Adjacency {
+
+	// the number of sources counted by a task of the pool without splitting it
+	private static final int BATCH_SIZE = 256;
+
+	// the ratio between the sizes of two ranges above which they're intersected by galloping instead of merging
+	private static final int GALLOP_RATIO = 8;
+
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+	private final byte[] linkTypes;
+	private final byte[] nodeTypes;
+	private final Link[] links;
+
+	private volatile QueryMetrics metrics = QueryMetrics.DISABLED;
+
+	/**
+	 * Compiles the <code>Links</code> of <code>nodes</code>
+	 * @param nodes The <code>Nodes</code> indexed by their id
+	 */
+	public Adjacency(List<Node> nodes) {
+		int size = nodes.size();
+		offsets = new int[size + 1];
+		nodeTypes = new byte[size];
+		for (int id = 0; id < size; id++) {
+			Node node = nodes.get(id);
+			offsets[id + 1] = offsets[id] + node.getNodeLinks().size();
+			nodeTypes[id] = (byte)node.getType().ordinal();
+		}
+
+		targets = new int[offsets[size]];
+		weights = new int[offsets[size]];
+		linkTypes = new byte[offsets[size]];
+		links = new Link[offsets[size]];
+		for (int id = 0; id < size; id++) {
+			List<Link> nodeLinks = nodes.get(id).getNodeLinks();
+			// the Links are sorted by destination, then by their order in the Node, as packed longs
+			long[] sorted = new long[nodeLinks.size()];
+			for (int i = 0; i < sorted.length; i++)
+				sorted[i] = ((long)nodeLinks.get(i).getDestination().getId() << 32) | i;
+			Arrays.sort(sorted);
+			for (int i = 0; i < sorted.length; i++) {
+				Link link = nodeLinks.get((int)sorted[i]);
+				targets[offsets[id] + i] = link.getDestination().getId();
+				weights[offsets[id] + i] = link.getDistance();
+				linkTypes[offsets[id] + i] = (byte)link.getType().ordinal();
+				links[offsets[id] + i] = link;
+			}
+		}
+	}
+
+	/**
+	 * @param metrics The metrics the searches are recorded into
+	 */
+	void setMetrics(QueryMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return Returns the number of <code>Nodes</code>
+	 */
+	public int size() {
+		return nodeTypes.length;
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns the index of the first <code>Link</code> leaving the <code>Node</code>
+	 */
+	public int getStart(int id) {
+		return offsets[id];
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns the index following the last <code>Link</code> leaving the <code>Node</code>
+	 */
+	public int getEnd(int id) {
+		return offsets[id + 1];
+	}
+
+	/**
+	 * @param link The index of a <code>Link</code>
+	 * @return Returns the id of the destination of the <code>Link</code>
+	 */
+	public int getTarget(int link) {
+		return targets[link];
+	}
+
+	/**
+	 * @param link The index of a <code>Link</code>
+	 * @return Returns the distance of the <code>Link</code>
+	 */
+	public int getWeight(int link) {
+		return weights[link];
+	}
+
+	/**
+	 * @param link The index of a <code>Link</code>
+	 * @return Returns the ordinal of the <code>LinkType</code> of the <code>Link</code>
+	 */
+	public int getLinkType(int link) {
+		return linkTypes[link];
+	}
+
+	/**
+	 * @param link The index of a <code>Link</code>
+	 * @return Returns the <code>Link</code>
+	 */
+	public Link getLink(int link) {
+		return links[link];
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns the ordinal of the <code>NodeType</code> of the <code>Node</code>
+	 */
+	public int getNodeType(int id) {
+		return nodeTypes[id];
+	}
+
+	/**
+	 * @param link The index of a <code>Link</code>
+	 * @param nodeMask The mask of the <code>NodeTypes</code> accepted
+	 * @param linkMask The mask of the <code>LinkTypes</code> accepted
+	 * @return Returns <code>true</code> if the <code>Link</code> and its destination are accepted by the masks
+	 */
+	private boolean accepts(int link, int nodeMask, int linkMask) {
+		return (linkMask & (1 << linkTypes[link])) != 0 && (nodeMask & (1 << nodeTypes[targets[link]])) != 0;
+	}
+
+	/**
+	 * Tells if two <code>Nodes</code> have a common neighbor, by intersecting their sorted <code>Links</code>
+	 * <p>The ranges are merged when their sizes are close, otherwise each destination of the smaller one is searched in the bigger one by galloping</p>
+	 * @param source The id of the first <code>Node</code>
+	 * @param target The id of the second <code>Node</code>
+	 * @param nodeMask The mask of the <code>NodeTypes</code> of the common neighbor, as given by <code>TypeFilter.getMask()</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean isTwoDistance(int source, int target, int nodeMask, int linkMask) {
+		int small = source;
+		int big = target;
+		if (offsets[source + 1] - offsets[source] > offsets[target + 1] - offsets[target]) {
+			small = target;
+			big = source;
+		}
+		int a = offsets[small];
+		int aEnd = offsets[small + 1];
+		int b = offsets[big];
+		int bEnd = offsets[big + 1];
+
+		if (bEnd - b <= GALLOP_RATIO * (aEnd - a)) {
+			while (a < aEnd && b < bEnd) {
+				if (!accepts(a, nodeMask, linkMask))
+					a++;
+				else if (!accepts(b, nodeMask, linkMask))
+					b++;
+				else if (targets[a] < targets[b])
+					a++;
+				else if (targets[a] > targets[b])
+					b++;
+				else
+					return true;
+			}
+			return false;
+		}
+
+		for (; a < aEnd && b < bEnd; a++) {
+			if (!accepts(a, nodeMask, linkMask))
+				continue;
+			int node = targets[a];
+
+			// doubles the step until it passes the destination, then searches it by dichotomy
+			int step = 1;
+			int low = b;
+			while (b + step < bEnd && targets[b + step] < node) {
+				low = b + step;
+				step <<= 1;
+			}
+			int high = Math.min(b + step, bEnd);
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (targets[middle] < node)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			b = low;
+
+			// the parallel Links to the destination may not all be accepted
+			for (int link = b; link < bEnd && targets[link] == node; link++)
+				if ((linkMask & (1 << linkTypes[link])) != 0)
+					return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells for many pairs of <code>Nodes</code> if they have a common neighbor
+	 * <p>The pairs are grouped by source: the accepted neighbors of a source are marked once in a bitset, then the neighbors of its targets are probed in it</p>
+	 * @param sources The ids of the first <code>Nodes</code> of the pairs
+	 * @param destinations The ids of the second <code>Nodes</code> of the pairs, in the same order
+	 * @param nodeMask The mask of the <code>NodeTypes</code> of the common neighbor
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns for each pair <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean[] isTwoDistance(int[] sources, int[] destinations, int nodeMask, int linkMask) {
+		if (sources.length != destinations.length)
+			throw new IllegalArgumentException("Les tableaux des sources et des destinations n'ont pas la même taille");
+
+		// the pairs sorted by source, the index of each pair in the low bits
+		long[] pairs = new long[sources.length];
+		for (int i = 0; i < pairs.length; i++)
+			pairs[i] = ((long)sources[i] << 32) | i;
+		Arrays.sort(pairs);
+
+		boolean[] result = new boolean[pairs.length];
+		long[] marked = new long[(size() + 63) >>> 6];
+		for (int first = 0, last; first < pairs.length; first = last) {
+			int source = (int)(pairs[first] >>> 32);
+			for (last = first; last < pairs.length && (int)(pairs[last] >>> 32) == source; last++);
+
+			for (int link = offsets[source]; link < offsets[source + 1]; link++)
+				if (accepts(link, nodeMask, linkMask))
+					marked[targets[link] >>> 6] |= 1L << targets[link];
+
+			for (int i = first; i < last; i++) {
+				int index = (int)pairs[i];
+				int destination = destinations[index];
+				for (int link = offsets[destination]; link < offsets[destination + 1] && !result[index]; link++)
+					result[index] = accepts(link, nodeMask, linkMask) && (marked[targets[link] >>> 6] & (1L << targets[link])) != 0;
+			}
+
+			for (int link = offsets[source]; link < offsets[source + 1]; link++)
+				marked[targets[link] >>> 6] = 0;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the shortest paths from one <code>Node</code> with the Dijkstra algorithm, the <code>Nodes</code> to visit being kept in a binary heap
+	 * <p>If the departure isn't accepted by <code>nodeMask</code> the other <code>Nodes</code> can't be reached</p>
+	 * @param source The id of the departure
+	 * @param nodeMask The mask of the <code>NodeTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns the tree of the shortest paths from the departure
+	 */
+	public ShortestPathTree getShortestPathTree(int source, int nodeMask, int linkMask) {
+		long start = metrics.start();
+		int[] distances = new int[size()];
+		int[] predecessors = new int[size()];
+		Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(predecessors, -1);
+		distances[source] = 0;
+
+		if ((nodeMask & (1 << nodeTypes[source])) != 0) {
+			// the arrays are kept by the tree, only the heap is borrowed
+			SearchWorkspace workspace = SearchWorkspace.of(size());
+			workspace.start();
+			// the distance in the high bits so the heap is sorted by distance, a Node is pushed again when its distance decreases
+			LongHeap heap = workspace.heap;
+			heap.push(source);
+			int settled = 0;
+			int relaxed = 0;
+			int pushes = 1;
+			int pops = 0;
+			while (!heap.isEmpty()) {
+				long top = heap.pop();
+				pops++;
+				int node = (int)top;
+				int distance = (int)(top >>> 32);
+				if (distance > distances[node])
+					continue;
+
+				settled++;
+				for (int link = offsets[node]; link < offsets[node + 1]; link++) {
+					int target = targets[link];
+					relaxed++;
+					if (accepts(link, nodeMask, linkMask) && distance + weights[link] < distances[target]) {
+						distances[target] = distance + weights[link];
+						predecessors[target] = link;
+						heap.push(((long)distances[target] << 32) | target);
+						pushes++;
+					}
+				}
+			}
+			workspace.count(settled, relaxed, pushes, pops);
+			metrics.recordSearch(start, workspace);
+		}
+		return new ShortestPathTree(this, source, distances, predecessors);
+	}
+
+	/**
+	 * Computes the length of the shortest path between two <code>Nodes</code> with the Dijkstra algorithm, stopping as soon as the arrival is reached
+	 * <p>The search uses the workspace of the calling thread, so nothing proportional to the graph is allocated</p>
+	 * @param source The id of the departure
+	 * @param target The id of the arrival
+	 * @param nodeMask The mask of the <code>NodeTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns the length of the shortest path, or <code>ShortestPathTree.UNREACHABLE</code> if there's none
+	 */
+	public int getDistance(int source, int target, int nodeMask, int linkMask) {
+		SearchWorkspace workspace = SearchWorkspace.of(size());
+		return search(source, target, nodeMask, linkMask, workspace) ? workspace.getDistance(target) : ShortestPathTree.UNREACHABLE;
+	}
+
+	/**
+	 * Computes the shortest path between two <code>Nodes</code> with the Dijkstra algorithm, stopping as soon as the arrival is reached
+	 * <p>The search uses the workspace of the calling thread, only the path itself is allocated</p>
+	 * @param source The id of the departure
+	 * @param target The id of the arrival
+	 * @param nodeMask The mask of the <code>NodeTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns the indexes of the <code>Links</code> of the path from the departure, or <code>null</code> if there's none
+	 */
+	public int[] getPath(int source, int target, int nodeMask, int linkMask) {
+		SearchWorkspace workspace = SearchWorkspace.of(size());
+		if (!search(source, target, nodeMask, linkMask, workspace))
+			return null;
+
+		long start = metrics.start();
+		int length = 0;
+		for (int node = target; node != source; node = links[workspace.getPredecessor(node)].getDeparture().getId())
+			length++;
+		int[] path = new int[length];
+		for (int node = target; node != source; node = links[workspace.getPredecessor(node)].getDeparture().getId())
+			path[--length] = workspace.getPredecessor(node);
+		metrics.recordPath(start);
+		return path;
+	}
+
+	/**
+	 * Computes the shortest paths from one <code>Node</code> to all the others with the Dijkstra algorithm, in the workspace of the calling thread
+	 * <p>Unlike <code>getShortestPathTree</code> nothing proportional to the graph is allocated, the distances found being only valid until the next search of the thread</p>
+	 * @param source The id of the departure
+	 * @param nodeMask The mask of the <code>NodeTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @return Returns the workspace holding the distances found
+	 */
+	SearchWorkspace searchAll(int source, int nodeMask, int linkMask) {
+		SearchWorkspace workspace = SearchWorkspace.of(size());
+		// no Node has the id -1, so the search only stops once all the reachable Nodes are settled
+		search(source, -1, nodeMask, linkMask, workspace);
+		return workspace;
+	}
+
+	/**
+	 * Searches the shortest path between two <code>Nodes</code> in <code>workspace</code>, which holds the distances and the predecessors found afterwards
+	 * @param source The id of the departure
+	 * @param target The id of the arrival
+	 * @param nodeMask The mask of the <code>NodeTypes</code> we go through
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @param workspace The arrays of the search
+	 * @return Returns <code>true</code> if the arrival has been reached
+	 */
+	private boolean search(int source, int target, int nodeMask, int linkMask, SearchWorkspace workspace) {
+		workspace.start();
+		workspace.reach(source, 0, -1);
+		if (source == target)
+			return true;
+		if ((nodeMask & (1 << nodeTypes[source])) == 0)
+			return false;
+
+		long start = metrics.start();
+		LongHeap heap = workspace.heap;
+		heap.push(source);
+		boolean found = false;
+		// counted in locals so the loop doesn't write the workspace for nothing
+		int settled = 0;
+		int relaxed = 0;
+		int pushes = 1;
+		int pops = 0;
+		while (!heap.isEmpty()) {
+			long top = heap.pop();
+			pops++;
+			int node = (int)top;
+			int distance = (int)(top >>> 32);
+			if (node == target) {
+				found = true;
+				break;
+			}
+			if (distance > workspace.getDistance(node))
+				continue;
+
+			settled++;
+			for (int link = offsets[node]; link < offsets[node + 1]; link++) {
+				int next = targets[link];
+				relaxed++;
+				if (accepts(link, nodeMask, linkMask) && distance + weights[link] < workspace.getDistance(next)) {
+					workspace.reach(next, distance + weights[link], link);
+					heap.push(((long)(distance + weights[link]) << 32) | next);
+					pushes++;
+				}
+			}
+		}
+		workspace.count(settled, relaxed, pushes, pops);
+		metrics.recordSearch(start, workspace);
+		return found;
+	}
+
+	/**
+	 * Searches the <code>Nodes</code> at <code>jumps</code> jumps or less from one <code>Node</code> with a breadth-first search, in the workspace of the calling thread
+	 * @param source The id of the departure
+	 * @param jumps The maximum number of jumps
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @return Returns the other <code>Nodes</code> reached, each id packed with its number of jumps in the high bits, the closest first
+	 */
+	public long[] getNeighbors(int source, int jumps, int linkMask) {
+		long start = metrics.start();
+		SearchWorkspace workspace = SearchWorkspace.of(size());
+		workspace.start();
+		int[] queue = workspace.queue;
+		int relaxed = 0;
+
+		workspace.reach(source, 0, -1);
+		queue[0] = source;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int node = queue[head++];
+			int depth = workspace.getDistance(node);
+			if (depth >= jumps)
+				continue;
+
+			for (int link = offsets[node]; link < offsets[node + 1]; link++) {
+				int target = targets[link];
+				relaxed++;
+				if ((linkMask & (1 << linkTypes[link])) != 0 && !workspace.isReached(target)) {
+					workspace.reach(target, depth + 1, link);
+					queue[tail++] = target;
+				}
+			}
+		}
+		workspace.count(tail, relaxed, 0, 0);
+		metrics.recordSearch(start, workspace);
+
+		long[] reached = new long[tail - 1];
+		for (int i = 1; i < tail; i++)
+			reached[i - 1] = ((long)workspace.getDistance(queue[i]) << 32) | queue[i];
+		return reached;
+	}
+
+	/**
+	 * Counts for every <code>Node</code> the other <code>Nodes</code> of each type at <code>jumps</code> jumps or less, the sources being split between the tasks of <code>pool</code>
+	 * @param jumps The maximum number of jumps
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through, as given by <code>TypeFilter.getMask()</code>
+	 * @param pool The pool running the tasks
+	 * @return Returns the counts indexed by the ordinal of the <code>NodeType</code> then by the id of the <code>Node</code>
+	 */
+	public int[][] countByType(int jumps, int linkMask, ForkJoinPool pool) {
+		int[][] counts = new int[NodeType.values().length][size()];
+		// a task takes a free workspace, or creates one, so there are about as many as threads
+		Queue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+		pool.invoke(new CountTask(0, size(), jumps, linkMask, counts, workspaces));
+		return counts;
+	}
+
+	/**
+	 * Counts the other <code>Nodes</code> of each type at <code>jumps</code> jumps or less from one <code>Node</code>
+	 * @param source The id of the <code>Node</code>
+	 * @param jumps The maximum number of jumps
+	 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+	 * @param counts The counts indexed by the ordinal of the <code>NodeType</code> then by the id of the <code>Node</code>
+	 * @param workspace The arrays of the search, left cleared
+	 */
+	private void count(int source, int jumps, int linkMask, int[][] counts, Workspace workspace) {
+		long[] visited = workspace.visited;
+		int[] frontier = workspace.frontier;
+		int[] next = workspace.next;
+
+		visited[source >>> 6] |= 1L << source;
+		frontier[0] = source;
+		int frontierSize = 1;
+		// the reached Nodes follow each other in the frontiers, they're kept to clear their bits afterwards
+		int reached = 1;
+		workspace.reached[0] = source;
+
+		for (int depth = 0; depth < jumps && frontierSize > 0; depth++) {
+			int nextSize = 0;
+			for (int i = 0; i < frontierSize; i++) {
+				int node = frontier[i];
+				for (int link = offsets[node]; link < offsets[node + 1]; link++) {
+					int target = targets[link];
+					long bit = 1L << target;
+					if ((linkMask & (1 << linkTypes[link])) != 0 && (visited[target >>> 6] & bit) == 0) {
+						visited[target >>> 6] |= bit;
+						next[nextSize++] = target;
+						workspace.reached[reached++] = target;
+						counts[nodeTypes[target]][source]++;
+					}
+				}
+			}
+			int[] swap = frontier;
+			frontier = next;
+			next = swap;
+			frontierSize = nextSize;
+		}
+
+		for (int i = 0; i < reached; i++)
+			visited[workspace.reached[i] >>> 6] = 0;
+	}
+
+	/**
+	 * The arrays of a search, reused from one source to the next
+	 */
+	private static final class Workspace {
+
+		private final long[] visited;
+		private final int[] frontier;
+		private final int[] next;
+		private final int[] reached;
+
+		/**
+		 * @param size The number of <code>Nodes</code>
+		 */
+		private Workspace(int size) {
+			visited = new long[(size + 63) >>> 6];
+			frontier = new int[size];
+			next = new int[size];
+			reached = new int[size];
+		}
+
+	}
+
+	/**
+	 * The task counting the neighbors of a range of sources, split in two until the range is small enough
+	 */
+	private final class CountTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int jumps;
+		private final int linkMask;
+		private final int[][] counts;
+		private final Queue<Workspace> workspaces;
+
+		/**
+		 * @param from The first source included
+		 * @param to The last source excluded
+		 * @param jumps The maximum number of jumps
+		 * @param linkMask The mask of the <code>LinkTypes</code> we go through
+		 * @param counts The counts filled by the task
+		 * @param workspaces The free arrays of the searches
+		 */
+		private CountTask(int from, int to, int jumps, int linkMask, int[][] counts, Queue<Workspace> workspaces) {
+			this.from = from;
+			this.to = to;
+			this.jumps = jumps;
+			this.linkMask = linkMask;
+			this.counts = counts;
+			this.workspaces = workspaces;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BATCH_SIZE) {
+				Workspace workspace = workspaces.poll();
+				if (workspace == null)
+					workspace = new Workspace(size());
+				for (int source = from; source < to; source++)
+					count(source, jumps, linkMask, counts, workspace);
+				workspaces.offer(workspace);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new CountTask(from, middle, jumps, linkMask, counts, workspaces), new CountTask(middle, to, jumps, linkMask, counts, workspaces));
+			}
+		}
+
+	}
+
+}
@@ -23,6 +23,28 @@ public final class CounterNodeType {
 		mapCounter.put(NodeType.RECREATION,recreations);
 	}
 	
+	/**
+	 * @param objective The numbers of cities, restaurants and recreations separated by colons, like <code>"1:0:2"</code>
+	 * @return Returns the counter of these numbers
+	 * @throws IllegalArgumentException If <code>objective</code> isn't three positive numbers separated by colons
+	 */
+	public static CounterNodeType parse(String objective) {
+		String[] numbers = objective.split(":");
+		if (numbers.length != 3)
+			throw new IllegalArgumentException("L'objectif " + objective + " n'est pas valide, il doit être de la forme villes:restaurants:loisirs");
+		int[] counts = new int[3];
+		for (int i = 0; i < 3; i++) {
+			try {
+				counts[i] = Integer.parseInt(numbers[i].trim());
+			} catch (NumberFormatException e) {
+				counts[i] = -1;
+			}
+			if (counts[i] < 0)
+				throw new IllegalArgumentException("L'objectif " + objective + " n'est pas valide, il doit être de la forme villes:restaurants:loisirs");
+		}
+		return new CounterNodeType(counts[0], counts[1], counts[2]);
+	}
+	
 	/**
 	 * Updates the number of needed types
 	 * @param nodes The <code>List</code> of <code>Nodes</code> in which we will count
@@ -1,59 +1,99 @@
 package grama.model;
 
+import grama.metrics.Metrics;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * The class representing a graph
+ * <p>The loaded content is an immutable <code>GraphSnapshot</code> replaced at once by each loading, so the queries running at the same time keep the one they started with</p>
  * @author VAILLON Albert
  * @author BAUDRY Lilian
  * @version JDK 11.0.13
  */
 public final class Graph {
 	
-	private HashMap<String, Node> nodeMap = new HashMap<>();
+	private final AtomicReference<GraphSnapshot> snapshot = new AtomicReference<>(GraphSnapshot.EMPTY);
+	private volatile QueryMetrics metrics = QueryMetrics.DISABLED;
 	
 	/**
 	 * Loads all the file's data in the structure
+	 * <p>The file is read into new <code>Nodes</code>, published only once they're complete: if the loading fails the current content is kept</p>
 	 * @param fileName The name of the file where the data is stored
 	 * @throws LoadGraphException If the file does not match the following pattern :<blockquote><code>nodeCategory:nodeName|linkCategory:linkDistance:linkDestination|...</code></blockquote>
 	 */
 	public void load(String fileName) throws LoadGraphException {
-		nodeMap.clear();
+		load(fileName, null);
+	}
+	
+	/**
+	 * Loads all the file's data in the structure, while measuring the loading
+	 * <p>The file is read into new <code>Nodes</code>, published only once they're complete: if the loading fails the current content is kept</p>
+	 * @param fileName The name of the file where the data is stored
+	 * @param report The report filled with the measures and the problems found in the file, or <code>null</code> to measure nothing
+	 * @throws LoadGraphException If the file does not match the following pattern :<blockquote><code>nodeCategory:nodeName|linkCategory:linkDistance:linkDestination|...</code></blockquote>
+	 */
+	public void load(String fileName, LoadReport report) throws LoadGraphException {
+		LoadReport profile = report != null ? report : LoadReport.DISABLED;
+		Map<String, Node> nodeMap = new HashMap<>();
 		try {
+			profile.begin(fileName, new File(fileName).length());
 			BufferedReader readGraph = new BufferedReader(new FileReader(fileName));	
-			// loads all the nodes into the nodeMap ArrayList
+			// loads all the nodes into the nodeMap HashMap
 			String row;
+			long time = profile.time();
 			while ((row = readGraph.readLine()) != null) {
+				time = profile.record(LoadReport.Phase.READING, time);
 				String node[] = row.split("\\|")[0].split(":");
-				getNodeMap().put(node[1], new Node(node[0].charAt(0), node[1], Double.valueOf(node[2]),Double.valueOf(node[3])));
+				double ratioX = Double.valueOf(node[2]);
+				double ratioY = Double.valueOf(node[3]);
+				time = profile.record(LoadReport.Phase.TOKENIZING, time);
+				// a duplicated name replaces the previous Node, the Links of both rows going to the last one
+				if (nodeMap.put(node[1], new Node(node[0].charAt(0), node[1], ratioX, ratioY)) != null)
+					profile.addDuplicate(node[1]);
+				time = profile.record(LoadReport.Phase.BUILDING, time);
 			}
 			readGraph.close();
+			
+			// numbers the nodes so they can be indexed in arrays
+			int id = 0;
+			for (Node node: nodeMap.values())
+				node.setId(id++);
 
 			// loads all the links into their right nodes
 			readGraph = new BufferedReader(new FileReader(fileName));
+			time = profile.time();
 			while ((row = readGraph.readLine()) != null) {
+				time = profile.record(LoadReport.Phase.READING, time);
 				String elements[] = row.split("\\|");
 
 				// selects the node corresponding to the links
 				String[] departure = elements[0].split(":");
-				Node nodeDeparture = getNodeMap().get(departure[1]);
+				time = profile.record(LoadReport.Phase.TOKENIZING, time);
+				Node nodeDeparture = nodeMap.get(departure[1]);
+				time = profile.record(LoadReport.Phase.RESOLVING, time);
 
 				// fills the neighborsList with the neighbors of the node
 				for (int i = 1; i < elements.length; i++) {
 					String element[] = elements[i].split(":");
-					Node destination = getNodeMap().get(element[2]);
+					int distance = Integer.parseInt(element[1]);
+					time = profile.record(LoadReport.Phase.TOKENIZING, time);
+					Node destination = nodeMap.get(element[2]);
+					time = profile.record(LoadReport.Phase.RESOLVING, time);
 					if (destination == null) {
 						readGraph.close();
 						throw new LoadGraphException("La destination " + element[2] + " en partant de " + nodeDeparture + " n'a pas été trouvé");
 					}
-					nodeDeparture.addLink(new Link(element[0].charAt(0), Integer.parseInt(element[1]), nodeDeparture, destination));
+					nodeDeparture.addLink(new Link(element[0].charAt(0), distance, nodeDeparture, destination));
+					time = profile.record(LoadReport.Phase.BUILDING, time);
 				}
+				profile.countRow(elements.length - 1);
 			}
 			readGraph.close();
 		} catch (LoadGraphException e) {
@@ -64,20 +104,103 @@ public final class Graph {
 		if (nodeMap.isEmpty()) {
 			throw new LoadGraphException();
 		}
+		long time = profile.time();
+		GraphSnapshot loaded = new GraphSnapshot(nodeMap);
+		loaded.setMetrics(metrics);
+		profile.record(LoadReport.Phase.INDEXING, time);
+		profile.end(loaded.getNodes());
+		snapshot.set(loaded);
+	}
+	
+	/**
+	 * Records the work of the queries, the nodes settled and the links relaxed by the searches, the time of each phase and the hits of the caches
+	 * @param metrics The counters and histograms the queries are recorded into, or <code>null</code> to stop recording them
+	 */
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics == null ? QueryMetrics.DISABLED : new QueryMetrics(metrics);
+		GraphSnapshot current = snapshot.get();
+		// the empty snapshot is shared by all the graphs
+		if (current != GraphSnapshot.EMPTY)
+			current.setMetrics(this.metrics);
+	}
+	
+	/**
+	 * A query going through several methods should call them on the same snapshot, so a loading in between doesn't mix two graphs
+	 * @return Returns the content of this <code>Graph</code> currently published, which is never modified
+	 */
+	public GraphSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+	
+	/**
+	 * Counts in parallel the two jumps neighbors of every <code>Node</code>, so comparing the <code>Nodes</code> doesn't have to wait for them
+	 */
+	public void computeTwoJumpsCounters() {
+		snapshot.get().computeTwoJumpsCounters();
 	}
 	
 	/**
-	 * Clears all the existing data of the graph
+	 * Counts in parallel, for every <code>Node</code>, the other <code>Nodes</code> of each type at <code>jumps</code> jumps or less
+	 * @param jumps The maximum number of jumps
+	 * @return Returns the counts indexed by the ordinal of the <code>NodeType</code> then by the id of the <code>Node</code>
+	 */
+	public int[][] countNeighborsByType(int jumps) {
+		return countNeighborsByType(jumps, TypeFilter.all(LinkType.class));
+	}
+	
+	/**
+	 * Counts in parallel, for every <code>Node</code>, the other <code>Nodes</code> of each type at <code>jumps</code> jumps or less
+	 * @param jumps The maximum number of jumps
+	 * @param linkTypes The filter of the <code>Link</code> types we go through
+	 * @return Returns the counts indexed by the ordinal of the <code>NodeType</code> then by the id of the <code>Node</code>
+	 */
+	public int[][] countNeighborsByType(int jumps, TypeFilter<LinkType> linkTypes) {
+		return snapshot.get().countNeighborsByType(jumps, linkTypes);
+	}
+	
+	/**
+	 * Tells us if two <code>Nodes</code> are exactly at two distances from each other, through the compiled <code>Links</code>
+	 * @param source The first <code>Node</code>
+	 * @param target The second <code>Node</code>
+	 * @param nodesFilter filter by type of nodes requested
+	 * @param linksFilter filter by type of links requested
+	 * @return Returns <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean isTwoDistance(Node source, Node target, TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter) {
+		return snapshot.get().isTwoDistance(source, target, nodesFilter, linksFilter);
+	}
+	
+	/**
+	 * Tells us for many pairs of <code>Nodes</code> if they're exactly at two distances from each other
+	 * @param sources The ids of the first <code>Nodes</code> of the pairs
+	 * @param targets The ids of the second <code>Nodes</code> of the pairs, in the same order
+	 * @param nodesFilter filter by type of nodes requested
+	 * @param linksFilter filter by type of links requested
+	 * @return Returns for each pair <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean[] isTwoDistance(int[] sources, int[] targets, TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter) {
+		return snapshot.get().isTwoDistance(sources, targets, nodesFilter, linksFilter);
+	}
+	
+	/**
+	 * @return Returns the <code>Links</code> of this <code>Graph</code> compiled into primitive arrays indexed by the ids of the <code>Nodes</code>
+	 */
+	public Adjacency getAdjacency() {
+		return snapshot.get().getAdjacency();
+	}
+	
+	/**
+	 * Clears all the existing data of the graph, the queries still running keep their snapshot
 	 */
 	public void reset() {
-		nodeMap.clear();
+		snapshot.set(GraphSnapshot.EMPTY);
 	}
 	
 	/**
-	 * @return Returns the <code>HashMap</code> of all the <code>Nodes</code> of this <code>Graph</code>
+	 * @return Returns the unmodifiable <code>Map</code> of all the <code>Nodes</code> of this <code>Graph</code>
 	 */
-	public HashMap<String, Node> getNodeMap() {
-		return nodeMap;
+	public Map<String, Node> getNodeMap() {
+		return snapshot.get().getNodeMap();
 	}
 	
 	/**
@@ -85,24 +208,40 @@ public final class Graph {
 	 * @return Returns the <code>Node</code> corresponding to the <code>String</code> of the <code>Graph</code>
 	 */
 	public Node getNode(String name){
-		return nodeMap.get(name);
+		return snapshot.get().getNode(name);
+	}
+	
+	/**
+	 * @param name The name of the <code>Node</code>, the case and the accents being ignored
+	 * @return Returns the <code>Node</code> with this name, or <code>null</code> if there's none
+	 */
+	public Node findNode(String name){
+		return snapshot.get().findNode(name);
 	}
 	
 	/**
-	 * @return Returns the <code>List</code> of all the <code>Nodes</code> of this <code>Graph</code>
+	 * Searches the <code>Nodes</code> for an autocompletion, the case and the accents being ignored
+	 * @param query The beginning of a name, or a misspelled name
+	 * @param limit The maximum number of <code>Nodes</code> returned
+	 * @return Returns the <code>Nodes</code> whose name starts with <code>query</code>, followed by the ones with a similar name
+	 */
+	public List<Node> searchNodes(String query, int limit){
+		return snapshot.get().searchNodes(query, limit);
+	}
+	
+	/**
+	 * @return Returns the unmodifiable <code>List</code> of all the <code>Nodes</code> of this <code>Graph</code>, indexed by their id
 	 */
 	public List<Node> getNodes() {
-		return new ArrayList(nodeMap.values());
+		return snapshot.get().getNodes();
 	}
 	
 	/**
 	 * @param type The type of <code>Node</code> we want
-	 * @return Returns the <code>List</code> of all the <code>Nodes</code> with the right type of this <code>Graph</code>
+	 * @return Returns the unmodifiable <code>List</code> of all the <code>Nodes</code> with the right type of this <code>Graph</code>
 	 */
 	public List<Node> getNodes(NodeType type){
-		return getNodes().stream()
-						 .filter(node -> node.getType() == type)
-						 .collect(Collectors.toList());
+		return snapshot.get().getNodes(type);
 	}
 	
 	/**
@@ -110,9 +249,15 @@ public final class Graph {
 	 * @return Returns the <code>List</code> of all the <code>Nodes</code> with the right type of this <code>Graph</code>
 	 */
 	public List<Node> getNodes(List <NodeType> types){
-		return getNodes().stream()
-						 .filter(node -> types.contains(node.getType()))
-						 .collect(Collectors.toList());
+		return getNodes(TypeFilter.ofNodes(types));
+	}
+	
+	/**
+	 * @param types The filter of the <code>Node</code> types we want
+	 * @return Returns the <code>List</code> of all the <code>Nodes</code> with the right type of this <code>Graph</code>
+	 */
+	public List<Node> getNodes(TypeFilter<NodeType> types){
+		return snapshot.get().getNodes(types);
 	}
 	
 	/**
@@ -125,12 +270,10 @@ public final class Graph {
 	}
 	
 	/**
-	 * @return Returns the <code>List</code> of all the distinct <code>Links</code> of this <code>Graph</code>
+	 * @return Returns the unmodifiable <code>List</code> of all the distinct <code>Links</code> of this <code>Graph</code>
 	 */
 	public List<Link> getDistinctLinks() {
-		return getLinks().stream()
-						 .distinct()
-						 .collect(Collectors.toList());
+		return snapshot.get().getDistinctLinks();
 	}
 	
 	/**
@@ -145,12 +288,10 @@ public final class Graph {
 	
 	/**
 	 * @param type The type of <code>Links</code> we want
-	 * @return Returns the <code>List</code> of all the distinct <code>Links</code> of this <code>Graph</code>
+	 * @return Returns the unmodifiable <code>List</code> of all the distinct <code>Links</code> of this <code>Graph</code>
 	 */
 	public List<Link> getDistinctLinks(LinkType type) {
-		return getLinks(type).stream()
-							 .distinct()
-							 .collect(Collectors.toList());
+		return snapshot.get().getDistinctLinks(type);
 	}
 	
 	/**
@@ -201,21 +342,7 @@ public final class Graph {
 	 * @throws ItineraryException If the itinerary is not possible
 	 */
 	public int getDistancePath(List<Link> path) throws ItineraryException{
-		
-		int distance = 0;
-		
-		if (path.isEmpty())
-			return distance;
-		
-		distance += path.get(0).getDistance();
-		
-		for (int i = 1 ; i < path.size() ; i++){
-			if (path.get(i-1).getDestination()!=path.get(i).getDeparture())
-				throw new ItineraryException("Chemin invalide");
-			distance += path.get(i).getDistance();
-		}
-		
-		return distance;
+		return snapshot.get().getDistancePath(path);
 	}
 	
 	/**
@@ -225,7 +352,7 @@ public final class Graph {
 	 * @throws ItineraryException If the itinerary is not possible
 	 */
 	public List<Link> getShortestItinerary(Node departure, Node arrival) throws ItineraryException {
-		return getShortestItinerary(departure, arrival, Arrays.asList(NodeType.values()), Arrays.asList(LinkType.values()));
+		return getShortestItinerary(departure, arrival, TypeFilter.all(NodeType.class), TypeFilter.all(LinkType.class));
 	}
 	
 	/**
@@ -238,68 +365,61 @@ public final class Graph {
 	 * @throws ItineraryException If the itinerary is not possible
 	 */
 	public List<Link> getShortestItinerary(Node departure, Node arrival, List<NodeType> nodeTypes, List<LinkType> linkTypes) throws ItineraryException{
-		
-		List<Node> notProcess = new ArrayList<>();
-		List<Integer> distances = new ArrayList<>();
-		
-		List<Node> nodes = getNodes(nodeTypes);
-		Link previousLink[] = new Link[nodes.size()];
-		
-		// Dijkstra Initialization
-		for (Node place : nodes){
-			notProcess.add(place);
-			
-			if (place == departure)
-				distances.add(0);
-			else
-				distances.add(Integer.MAX_VALUE);
-		}
-		
-		// Search until the path is found or inaccessible
-		while (!notProcess.isEmpty() || notProcess.contains(arrival) ){
-			
-			// Definition of the nearest node index
-			int indexMin = 0;
-			for (int i = 0 ; i < distances.size() ; i++){
-				if (distances.get(i) < distances.get(indexMin)){
-					indexMin = i;
-				}
-			}
-			
-			// Treatment of neighbors not yet treated
-			int distance = distances.remove(indexMin);
-			Node processing = notProcess.remove(indexMin);
-			
-			for (Node node : processing.getNeighbors(1, linkTypes)){
-				if (notProcess.contains(node)){
-					int indice = notProcess.indexOf(node);
-					
-					// Updates of the shortest distances
-					if (distance + processing.getShortestPath(node).getDistance() < distances.get(indice)){
-						distances.set(indice, distance + processing.getShortestPath(node).getDistance());
-						previousLink[nodes.indexOf(node)] = processing.getShortestPath(node);
-					}
-				}
-			}
-		}
-		
-		// Path construction
-		List<Link> path = new ArrayList<>();
-		
-		Node dest = arrival;
-		while (dest != departure){ 
-			
-			int indice = nodes.indexOf(dest);
-			Link step = previousLink[indice];
-			
-			if (step == null)
-				throw new ItineraryException("Ce noeud est inaccessible !");
-			
-			path.add(0, step);
-			dest = step.getDeparture();
-		}
-		
-		return path;
+		return getShortestItinerary(departure, arrival, TypeFilter.ofNodes(nodeTypes), TypeFilter.ofLinks(linkTypes));
+	}
+	
+	/**
+	 * The implementation of the Dijkstra shortest path resolution algorithm
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public List<Link> getShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException{
+		return snapshot.get().getShortestItinerary(departure, arrival, nodeTypes, linkTypes);
+	}
+	
+	/**
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the length in kilometers of the shortest path between the 2 places, without building the path
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public int getShortestDistance(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException{
+		return snapshot.get().getShortestDistance(departure, arrival, nodeTypes, linkTypes);
+	}
+	
+	/**
+	 * @param node The starting <code>Node</code>
+	 * @param jumps The maximum number of jumps
+	 * @param nodeTypes The filter of the <code>Node</code> types we want to get
+	 * @param linkTypes The filter of the <code>Link</code> types we go through
+	 * @return Returns the <code>Nodes</code> with the right type at <code>jumps</code> jumps or less from <code>node</code>, the closest first
+	 */
+	public List<Node> getNeighbors(Node node, int jumps, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes){
+		return snapshot.get().getNeighbors(node, jumps, nodeTypes, linkTypes);
+	}
+	
+	/**
+	 * @param departure The starting node, belonging to this <code>Graph</code>
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the shortest paths from <code>departure</code> to all the <code>Nodes</code>, taken from the cache if they've already been computed
+	 * @throws IllegalArgumentException If <code>departure</code> isn't a <code>Node</code> of the current snapshot
+	 */
+	public ShortestPathTree getShortestPathTree(Node departure, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		return snapshot.get().getShortestPathTree(departure, nodeTypes, linkTypes);
+	}
+	
+	/**
+	 * @return Returns the cache of the shortest paths trees of the current snapshot, with its statistics
+	 */
+	public PathTreeCache getPathTreeCache() {
+		return snapshot.get().getPathTreeCache();
 	}
 	
 	/**
@@ -313,111 +433,39 @@ public final class Graph {
 	 * @throws ItineraryException If the itinerary is not possible
 	 */
 	public List<Link> getShortestItinerary(Node departure, Node arrival, List<NodeType> nodeTypes, List<LinkType> linkTypes, CounterNodeType objectif) throws ItineraryException{
-
-		List<Link> initialPath = getShortestItinerary(departure, arrival, nodeTypes, linkTypes);
-		
-		CounterNodeType counterNodeType = new CounterNodeType();
-		counterNodeType.update(getNodesFromLinkList(initialPath));
-		
-		if (getNodes(NodeType.CITY).size() < objectif.getNumber(NodeType.CITY) ||
-			getNodes(NodeType.RECREATION).size() < objectif.getNumber(NodeType.RECREATION) ||
-			getNodes(NodeType.RESTAURANT).size() < objectif.getNumber(NodeType.RESTAURANT)){
-			
-			throw new ItineraryException("Nombre de batiments a visiter insuffisant");
-		}
-
-		NodeType insufisantType;
-
-		Node fixedNode = departure;
-		List<Link> fixedLinks = new ArrayList<>();
-
-		while ((insufisantType = counterNodeType.getInsufisantType(objectif)) != null ){
-			
-			Node nearest = getNearestNode(fixedNode, insufisantType, getNodesFromLinkList(initialPath), linkTypes, nodeTypes);
-			
-			fixedLinks.addAll(getShortestItinerary(fixedNode, nearest, nodeTypes, linkTypes));
-			
-			fixedNode = nearest;
-
-			initialPath.clear();
-			initialPath.addAll(fixedLinks);
-			initialPath.addAll(getShortestItinerary(nearest, arrival, nodeTypes, linkTypes));
-
-			counterNodeType.update(getNodesFromLinkList(initialPath));
-		}
-
-		return initialPath;
+		return getShortestItinerary(departure, arrival, TypeFilter.ofNodes(nodeTypes), TypeFilter.ofLinks(linkTypes), objectif);
 	}
 	
 	/**
-	 * @param departure The starting <code>Node</code>
-	 * @param type The type of the <code>Node</code> we want to get
-	 * @param treated The <code>List</code> of already treated <code>Nodes</code>
-	 * @param linksfilter The <code>List</code> of <code>Link</code> types we want
-	 * @param Nodesfilter The <code>List</code> of <code>Node</code> types we want
-	 * @return Returns the nearest <code>Node</code> with the right type
+	 * The implementation of the Dijkstra shortest path resolution algorithm with a number of cities, restaurants and recreations node
+	 * @param departure The starting point of the itinerary
+	 * @param arrival The end point of the itinerary
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @param objectif The object telling us how many nodes of a certain type we need to go through
+	 * @return Returns a <code>List</code> of <code>Links</code> representing the path of the itinerary
 	 * @throws ItineraryException If the itinerary is not possible
 	 */
-	private Node getNearestNode(Node departure, NodeType type, List<Node> treated, List<LinkType> linksfilter, List<NodeType> nodesfilter) throws ItineraryException {
-		Node nearestNode = null;
-		List<Link> links;
-		int distance = Integer.MAX_VALUE;
-
-		List<Node> toProcessNode = getNodes(type).stream()
-												 .filter(node -> !(treated.contains(node)) && node!=departure)
-												 .collect(Collectors.toList());
-
-		for (Node node : toProcessNode){
-			try {
-				links = getShortestItinerary(departure, node, nodesfilter, linksfilter);
-				if (getDistancePath(links)<distance){
-					nearestNode = node;
-					distance = getDistancePath(links); 
-				}
-			} catch (ItineraryException e) {}
-		}
-
-		if (nearestNode == null)
-			throw new ItineraryException("Construction du chemin impossible");
-
-		return nearestNode;
-	}
-	
-	/**
-	 * Transform a list of Links into a list of Nodes
-	 * @param list The list of <code>Links</code>
-	 * @return nodeList
-	 */
-	private List<Node> getNodesFromLinkList(List<Link> list){	
-		
-		List<Node> nodeList = list.stream()
-								  .map(link -> link.getDeparture())
-								  .collect(Collectors.toList());
-	
-		nodeList.add(getArrivalLinkList(list));
-
-		return nodeList;
+	public List<Link> getShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, CounterNodeType objectif) throws ItineraryException{
+		return snapshot.get().getShortestItinerary(departure, arrival, nodeTypes, linkTypes, objectif);
 	}
 	
 	/**
-	 * @param list The list of <code>Links</code>
-	 * @return The destination of the last <code>Link</code> in the list
+	 * @return Returns the cache of the itineraries with an objective of the current snapshot, with its statistics
 	 */
-	private Node getArrivalLinkList(List<Link> list){
-		if (list.isEmpty())
-			return null;
-		else
-			return list.get(list.size()-1).getDestination();
+	public RouteCache getRouteCache() {
+		return snapshot.get().getRouteCache();
 	}
 	
 	/**
 	 * Displays this <code>Graph</code> in a format close to the source file's
 	 */
 	public void display() {
-		if (nodeMap.isEmpty()) {
+		GraphSnapshot pinned = snapshot.get();
+		if (pinned.isEmpty()) {
 			System.out.println("Le graphe est vide");
 		} else {
-			for (Node node: getNodes()) {
+			for (Node node: pinned.getNodes()) {
 				System.out.printf("%-50s",node);
 				
 				for (Link link: node.getNodeLinks()) {
@@ -433,7 +481,7 @@ public final class Graph {
 	 * @param type The type of <code>Nodes</code> we will display
 	 */
 	public void display(NodeType type) {
-		List<Node> nodes = getNodes(type);
+		List<Node> nodes = snapshot.get().getNodes(type);
 		if (nodes.isEmpty()) {
 			System.out.println("Il n'y a pas de noeuds de type " + type);
 		} else {
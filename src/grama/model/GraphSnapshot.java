@@ -0,0 +1,619 @@
+package grama.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * The class representing the content of a <code>Graph</code> once it's loaded, which is never modified afterwards
+ * <p>A query keeps the same snapshot from its beginning to its end, so it's never disturbed by the loading of another file. The caches belong to the snapshot and are dropped with it</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class GraphSnapshot {
+
+	/**
+	 * The snapshot of a <code>Graph</code> which isn't loaded
+	 */
+	public static final GraphSnapshot EMPTY = new GraphSnapshot(Collections.emptyMap());
+
+	private final Map<String, Node> nodeMap;
+
+	// computed once the graph is loaded so the filters don't have to go through all the links
+	private final List<Node> nodes;
+	private final Map<NodeType, List<Node>> nodesByType = new EnumMap<>(NodeType.class);
+	private final List<Link> distinctLinks;
+	private final Map<LinkType, List<Link>> distinctLinksByType = new EnumMap<>(LinkType.class);
+	private final NodeIndex nameIndex;
+	private final Adjacency adjacency;
+	private final PathTreeCache pathTrees = new PathTreeCache();
+	private final RouteCache routes = new RouteCache();
+	private volatile QueryMetrics metrics = QueryMetrics.DISABLED;
+
+	/**
+	 * Splits the <code>Nodes</code> and the distinct <code>Links</code> by type, and compiles them
+	 * @param nodeMap The <code>Nodes</code> by name, numbered from 0 and with all their <code>Links</code>, which mustn't be modified afterwards
+	 */
+	GraphSnapshot(Map<String, Node> nodeMap) {
+		this.nodeMap = Collections.unmodifiableMap(new HashMap<>(nodeMap));
+
+		Node[] byId = new Node[nodeMap.size()];
+		for (Node node: nodeMap.values())
+			byId[node.getId()] = node;
+		nodes = Collections.unmodifiableList(Arrays.asList(byId));
+
+		for (NodeType type: NodeType.values())
+			nodesByType.put(type, new ArrayList<>());
+		for (Node node: nodes)
+			nodesByType.get(node.getType()).add(node);
+		for (NodeType type: NodeType.values())
+			nodesByType.put(type, Collections.unmodifiableList(nodesByType.get(type)));
+
+		Set<Link> links = new LinkedHashSet<>();
+		for (Node node: nodes)
+			links.addAll(node.getNodeLinks());
+		distinctLinks = Collections.unmodifiableList(new ArrayList<>(links));
+
+		for (LinkType type: LinkType.values())
+			distinctLinksByType.put(type, new ArrayList<>());
+		for (Link link: distinctLinks)
+			distinctLinksByType.get(link.getType()).add(link);
+		for (LinkType type: LinkType.values())
+			distinctLinksByType.put(type, Collections.unmodifiableList(distinctLinksByType.get(type)));
+
+		nameIndex = new NodeIndex(nodes);
+		adjacency = new Adjacency(nodes);
+
+		// the Links of every Node are known now
+		for (Node node: nodes)
+			node.clearCounters();
+	}
+
+	/**
+	 * Counts in parallel the two jumps neighbors of every <code>Node</code>, so comparing the <code>Nodes</code> doesn't have to wait for them
+	 */
+	public void computeTwoJumpsCounters() {
+		int[][] counts = adjacency.countByType(2, TypeFilter.all(LinkType.class).getMask(), ForkJoinPool.commonPool());
+		for (Node node: nodes)
+			node.setTwoJumpsCounter(new CounterNodeType(
+					counts[NodeType.CITY.ordinal()][node.getId()],
+					counts[NodeType.RESTAURANT.ordinal()][node.getId()],
+					counts[NodeType.RECREATION.ordinal()][node.getId()]
+			));
+	}
+
+	/**
+	 * Counts in parallel, for every <code>Node</code>, the other <code>Nodes</code> of each type at <code>jumps</code> jumps or less
+	 * @param jumps The maximum number of jumps
+	 * @param linkTypes The filter of the <code>Link</code> types we go through
+	 * @return Returns the counts indexed by the ordinal of the <code>NodeType</code> then by the id of the <code>Node</code>
+	 */
+	public int[][] countNeighborsByType(int jumps, TypeFilter<LinkType> linkTypes) {
+		return adjacency.countByType(jumps, linkTypes.getMask(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Tells us if two <code>Nodes</code> are exactly at two distances from each other, through the compiled <code>Links</code>
+	 * @param source The first <code>Node</code>
+	 * @param target The second <code>Node</code>
+	 * @param nodesFilter filter by type of nodes requested
+	 * @param linksFilter filter by type of links requested
+	 * @return Returns <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean isTwoDistance(Node source, Node target, TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter) {
+		if (!contains(source) || !contains(target))
+			return source.isTwoDistance(target, nodesFilter, linksFilter);
+		return adjacency.isTwoDistance(source.getId(), target.getId(), nodesFilter.getMask(), linksFilter.getMask());
+	}
+
+	/**
+	 * Tells us for many pairs of <code>Nodes</code> if they're exactly at two distances from each other
+	 * @param sources The ids of the first <code>Nodes</code> of the pairs
+	 * @param targets The ids of the second <code>Nodes</code> of the pairs, in the same order
+	 * @param nodesFilter filter by type of nodes requested
+	 * @param linksFilter filter by type of links requested
+	 * @return Returns for each pair <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean[] isTwoDistance(int[] sources, int[] targets, TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter) {
+		return adjacency.isTwoDistance(sources, targets, nodesFilter.getMask(), linksFilter.getMask());
+	}
+
+	/**
+	 * @param node A <code>Node</code>
+	 * @return Returns <code>true</code> if <code>node</code> is one of the <code>Nodes</code> of this snapshot
+	 */
+	public boolean contains(Node node) {
+		return node.getId() >= 0 && node.getId() < nodes.size() && nodes.get(node.getId()) == node;
+	}
+
+	/**
+	 * @return Returns the <code>Links</code> of this snapshot compiled into primitive arrays indexed by the ids of the <code>Nodes</code>
+	 */
+	public Adjacency getAdjacency() {
+		return adjacency;
+	}
+
+	/**
+	 * @param metrics The metrics the queries on this snapshot are recorded into
+	 */
+	void setMetrics(QueryMetrics metrics) {
+		this.metrics = metrics;
+		adjacency.setMetrics(metrics);
+	}
+
+	/**
+	 * @return Returns the unmodifiable <code>Map</code> of all the <code>Nodes</code> of this snapshot by name
+	 */
+	public Map<String, Node> getNodeMap() {
+		return nodeMap;
+	}
+
+	/**
+	 * @return Returns <code>true</code> if this snapshot has no <code>Node</code>
+	 */
+	public boolean isEmpty() {
+		return nodes.isEmpty();
+	}
+
+	/**
+	 * @param name The <code>key</code> of the node map
+	 * @return Returns the <code>Node</code> with this exact name, or <code>null</code> if there's none
+	 */
+	public Node getNode(String name) {
+		return nodeMap.get(name);
+	}
+
+	/**
+	 * @param name The name of the <code>Node</code>, the case and the accents being ignored
+	 * @return Returns the <code>Node</code> with this name, or <code>null</code> if there's none
+	 */
+	public Node findNode(String name) {
+		Node node = nodeMap.get(name);
+		return node != null ? node : nameIndex.find(name);
+	}
+
+	/**
+	 * Searches the <code>Nodes</code> for an autocompletion, the case and the accents being ignored
+	 * @param query The beginning of a name, or a misspelled name
+	 * @param limit The maximum number of <code>Nodes</code> returned
+	 * @return Returns the <code>Nodes</code> whose name starts with <code>query</code>, followed by the ones with a similar name
+	 */
+	public List<Node> searchNodes(String query, int limit) {
+		return nameIndex.search(query, limit);
+	}
+
+	/**
+	 * @return Returns the unmodifiable <code>List</code> of all the <code>Nodes</code> of this snapshot, indexed by their id
+	 */
+	public List<Node> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @param type The type of <code>Node</code> we want
+	 * @return Returns the unmodifiable <code>List</code> of all the <code>Nodes</code> with the right type of this snapshot
+	 */
+	public List<Node> getNodes(NodeType type) {
+		return nodesByType.getOrDefault(type, Collections.emptyList());
+	}
+
+	/**
+	 * @param types The filter of the <code>Node</code> types we want
+	 * @return Returns the <code>List</code> of all the <code>Nodes</code> with the right type of this snapshot
+	 */
+	public List<Node> getNodes(TypeFilter<NodeType> types) {
+		List<Node> filtered = new ArrayList<>();
+		for (NodeType type: NodeType.values())
+			if (types.accepts(type))
+				filtered.addAll(getNodes(type));
+		return filtered;
+	}
+
+	/**
+	 * @return Returns the unmodifiable <code>List</code> of all the distinct <code>Links</code> of this snapshot
+	 */
+	public List<Link> getDistinctLinks() {
+		return distinctLinks;
+	}
+
+	/**
+	 * @param type The type of <code>Links</code> we want
+	 * @return Returns the unmodifiable <code>List</code> of all the distinct <code>Links</code> with the right type of this snapshot
+	 */
+	public List<Link> getDistinctLinks(LinkType type) {
+		return distinctLinksByType.getOrDefault(type, Collections.emptyList());
+	}
+
+	/**
+	 * @param path A list of link representing a path
+	 * @return The total distance in kilometer
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public int getDistancePath(List<Link> path) throws ItineraryException {
+		int distance = 0;
+
+		if (path.isEmpty())
+			return distance;
+
+		distance += path.get(0).getDistance();
+
+		for (int i = 1 ; i < path.size() ; i++){
+			if (path.get(i-1).getDestination()!=path.get(i).getDeparture())
+				throw new ItineraryException("Chemin invalide");
+			distance += path.get(i).getDistance();
+		}
+
+		return distance;
+	}
+
+	/**
+	 * The implementation of the Dijkstra shortest path resolution algorithm
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public List<Link> getShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException {
+		// a Node of another graph has no Link in this one
+		if (!contains(departure) || !contains(arrival)) {
+			if (departure == arrival)
+				return new ArrayList<>();
+			throw new ItineraryException("Ce noeud est inaccessible !");
+		}
+		long start = metrics.start();
+		try {
+			ShortestPathTree tree = getShortestPathTree(departure, nodeTypes, linkTypes);
+			long path = metrics.start();
+			List<Link> itinerary = tree.getPath(arrival.getId());
+			metrics.recordPath(path);
+			return itinerary;
+		} finally {
+			metrics.recordQuery(QueryMetrics.Kind.ITINERARY, start);
+		}
+	}
+
+	/**
+	 * Finds the shortest path between 2 places like <code>getShortestItinerary</code>, for the steps of the itineraries with an objective, which aren't queries of their own
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private List<Link> findShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException {
+		if (!contains(departure) || !contains(arrival))
+			return getShortestItinerary(departure, arrival, nodeTypes, linkTypes);
+		return getShortestPathTree(departure, nodeTypes, linkTypes).getPath(arrival.getId());
+	}
+
+	/**
+	 * Finds a step of an itinerary with an objective, from the cache of the trees or in the workspace of the calling thread
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @param cached <code>true</code> to take the step from the cache of the trees
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private List<Link> findStep(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, boolean cached) throws ItineraryException {
+		return cached ? findShortestItinerary(departure, arrival, nodeTypes, linkTypes) : searchPath(departure, arrival, nodeTypes, linkTypes);
+	}
+
+	/**
+	 * Searches the shortest path between 2 places without the cache of the trees, in the workspace of the calling thread, for the queries too many to be cached
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public List<Link> searchShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException {
+		if (!contains(departure) || !contains(arrival))
+			return getShortestItinerary(departure, arrival, nodeTypes, linkTypes);
+
+		long start = metrics.start();
+		try {
+			return searchPath(departure, arrival, nodeTypes, linkTypes);
+		} finally {
+			metrics.recordQuery(QueryMetrics.Kind.ITINERARY, start);
+		}
+	}
+
+	/**
+	 * Searches the shortest path between 2 places of this snapshot in the workspace of the calling thread, without recording a query
+	 * @param departure The starting node, belonging to this snapshot
+	 * @param arrival The arrival node, belonging to this snapshot
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return A list of link representing the shortest path between 2 places
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private List<Link> searchPath(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException {
+		int[] path = adjacency.getPath(departure.getId(), arrival.getId(), nodeTypes.getMask(), linkTypes.getMask());
+		if (path == null)
+			throw new ItineraryException("Ce noeud est inaccessible !");
+		List<Link> itinerary = new ArrayList<>(path.length);
+		for (int link: path)
+			itinerary.add(adjacency.getLink(link));
+		return itinerary;
+	}
+
+	/**
+	 * @param departure The starting node
+	 * @param arrival The arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the length in kilometers of the shortest path between the 2 places, without building the path
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public int getShortestDistance(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) throws ItineraryException {
+		if (departure == arrival)
+			return 0;
+		long start = metrics.start();
+		int distance = contains(departure) && contains(arrival)
+				? adjacency.getDistance(departure.getId(), arrival.getId(), nodeTypes.getMask(), linkTypes.getMask())
+				: ShortestPathTree.UNREACHABLE;
+		metrics.recordQuery(QueryMetrics.Kind.DISTANCE, start);
+		if (distance == ShortestPathTree.UNREACHABLE)
+			throw new ItineraryException("Ce noeud est inaccessible !");
+		return distance;
+	}
+
+	/**
+	 * @param node The starting <code>Node</code>
+	 * @param jumps The maximum number of jumps
+	 * @param nodeTypes The filter of the <code>Node</code> types we want to get
+	 * @param linkTypes The filter of the <code>Link</code> types we go through
+	 * @return Returns the <code>Nodes</code> with the right type at <code>jumps</code> jumps or less from <code>node</code>, the closest first
+	 */
+	public List<Node> getNeighbors(Node node, int jumps, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		if (!contains(node)) {
+			Map<Node, Integer> distances = node.getNeighborsMap(linkTypes, jumps);
+			return distances.keySet().stream()
+									 .filter(neighbor -> neighbor != node && nodeTypes.accepts(neighbor.getType()))
+									 .sorted((a, b) -> distances.get(a).equals(distances.get(b)) ? a.compareTo(b) : distances.get(a) - distances.get(b))
+									 .collect(Collectors.toList());
+		}
+
+		// the reached Nodes come by number of jumps, the ones at the same number are sorted by name
+		long start = metrics.start();
+		long[] reached = adjacency.getNeighbors(node.getId(), jumps, linkTypes.getMask());
+		long filter = metrics.start();
+		List<Node> neighbors = new ArrayList<>();
+		for (int from = 0, to; from < reached.length; from = to) {
+			int first = neighbors.size();
+			for (to = from; to < reached.length && reached[to] >>> 32 == reached[from] >>> 32; to++) {
+				Node neighbor = nodes.get((int)reached[to]);
+				if (nodeTypes.accepts(neighbor.getType()))
+					neighbors.add(neighbor);
+			}
+			Collections.sort(neighbors.subList(first, neighbors.size()));
+		}
+		metrics.recordFilter(filter);
+		metrics.recordQuery(QueryMetrics.Kind.NEIGHBORS, start);
+		return neighbors;
+	}
+
+	/**
+	 * @param departure The starting node, belonging to this snapshot
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the shortest paths from <code>departure</code> to all the <code>Nodes</code>, taken from the cache if they've already been computed
+	 * @throws IllegalArgumentException If <code>departure</code> isn't a <code>Node</code> of this snapshot
+	 */
+	public ShortestPathTree getShortestPathTree(Node departure, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		// the id of a Node of another graph, or of a replaced snapshot, would designate another Node here
+		if (!contains(departure))
+			throw new IllegalArgumentException("Le noeud " + departure.getName() + " n'appartient pas à ce graphe");
+		ShortestPathTree tree = pathTrees.get(departure.getId(), nodeTypes.getMask(), linkTypes.getMask());
+		metrics.recordTreeCache(tree != null);
+		if (tree == null) {
+			tree = adjacency.getShortestPathTree(departure.getId(), nodeTypes.getMask(), linkTypes.getMask());
+			pathTrees.put(nodeTypes.getMask(), linkTypes.getMask(), tree);
+		}
+		return tree;
+	}
+
+	/**
+	 * @return Returns the cache of the shortest paths trees of this snapshot, with its statistics
+	 */
+	public PathTreeCache getPathTreeCache() {
+		return pathTrees;
+	}
+
+	/**
+	 * The implementation of the Dijkstra shortest path resolution algorithm with a number of cities, restaurants and recreations node
+	 * @param departure The starting point of the itinerary
+	 * @param arrival The end point of the itinerary
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @param objectif The object telling us how many nodes of a certain type we need to go through
+	 * @return Returns a <code>List</code> of <code>Links</code> representing the path of the itinerary
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public List<Link> getShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, CounterNodeType objectif) throws ItineraryException {
+		if (!contains(departure) || !contains(arrival))
+			return searchItinerary(departure, arrival, nodeTypes, linkTypes, objectif, true);
+
+		long start = metrics.start();
+		RouteKey key = new RouteKey(departure.getId(), arrival.getId(), nodeTypes, linkTypes, objectif);
+		List<Link> path = routes.get(key);
+		metrics.recordRouteCache(path != null);
+		if (path == null) {
+			path = searchItinerary(departure, arrival, nodeTypes, linkTypes, objectif, true);
+			routes.put(key, path);
+		}
+		metrics.recordQuery(QueryMetrics.Kind.OBJECTIVE, start);
+		return path;
+	}
+
+	/**
+	 * Searches the shortest itinerary going through a number of cities, restaurants and recreations node without the caches, in the workspace of the calling thread, for the queries too many to be cached
+	 * @param departure The starting point of the itinerary
+	 * @param arrival The end point of the itinerary
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @param objectif The object telling us how many nodes of a certain type we need to go through
+	 * @return Returns a <code>List</code> of <code>Links</code> representing the path of the itinerary
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	public List<Link> searchShortestItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, CounterNodeType objectif) throws ItineraryException {
+		if (!contains(departure) || !contains(arrival))
+			return getShortestItinerary(departure, arrival, nodeTypes, linkTypes, objectif);
+
+		long start = metrics.start();
+		List<Link> path = searchItinerary(departure, arrival, nodeTypes, linkTypes, objectif, false);
+		metrics.recordQuery(QueryMetrics.Kind.OBJECTIVE, start);
+		return path;
+	}
+
+	/**
+	 * @return Returns the cache of the itineraries with an objective of this snapshot, with its statistics
+	 */
+	public RouteCache getRouteCache() {
+		return routes;
+	}
+
+	/**
+	 * Searches the shortest itinerary going through a number of cities, restaurants and recreations node, without the cache of itineraries
+	 * @param departure The starting point of the itinerary
+	 * @param arrival The end point of the itinerary
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @param objectif The object telling us how many nodes of a certain type we need to go through
+	 * @param cached <code>true</code> to take the steps from the cache of the trees, <code>false</code> to search them in the workspace of the calling thread
+	 * @return Returns a <code>List</code> of <code>Links</code> representing the path of the itinerary
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private List<Link> searchItinerary(Node departure, Node arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, CounterNodeType objectif, boolean cached) throws ItineraryException {
+
+		List<Link> initialPath = findStep(departure, arrival, nodeTypes, linkTypes, cached);
+
+		CounterNodeType counterNodeType = new CounterNodeType();
+		counterNodeType.update(getNodesFromLinkList(departure, initialPath));
+
+		if (getNodes(NodeType.CITY).size() < objectif.getNumber(NodeType.CITY) ||
+			getNodes(NodeType.RECREATION).size() < objectif.getNumber(NodeType.RECREATION) ||
+			getNodes(NodeType.RESTAURANT).size() < objectif.getNumber(NodeType.RESTAURANT)){
+
+			throw new ItineraryException("Nombre de batiments a visiter insuffisant");
+		}
+
+		NodeType insufisantType;
+
+		Node fixedNode = departure;
+		List<Link> fixedLinks = new ArrayList<>();
+
+		while ((insufisantType = counterNodeType.getInsufisantType(objectif)) != null ){
+			long iteration = metrics.start();
+
+			Node nearest = getNearestNode(fixedNode, insufisantType, getNodesFromLinkList(departure, initialPath), linkTypes, nodeTypes, cached);
+
+			fixedLinks.addAll(findStep(fixedNode, nearest, nodeTypes, linkTypes, cached));
+
+			fixedNode = nearest;
+
+			initialPath.clear();
+			initialPath.addAll(fixedLinks);
+			initialPath.addAll(findStep(nearest, arrival, nodeTypes, linkTypes, cached));
+
+			counterNodeType.update(getNodesFromLinkList(departure, initialPath));
+			metrics.recordSolverIteration(iteration);
+		}
+
+		return initialPath;
+	}
+
+	/**
+	 * @param departure The starting <code>Node</code>
+	 * @param type The type of the <code>Node</code> we want to get
+	 * @param treated The <code>List</code> of already treated <code>Nodes</code>
+	 * @param linksfilter The filter of the <code>Link</code> types we want
+	 * @param Nodesfilter The filter of the <code>Node</code> types we want
+	 * @param cached <code>true</code> to take the paths from the cache of the trees, <code>false</code> to search the distances in the workspace of the calling thread
+	 * @return Returns the nearest <code>Node</code> with the right type
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private Node getNearestNode(Node departure, NodeType type, List<Node> treated, TypeFilter<LinkType> linksfilter, TypeFilter<NodeType> nodesfilter, boolean cached) throws ItineraryException {
+		Node nearestNode = null;
+		List<Link> links;
+		int distance = Integer.MAX_VALUE;
+
+		long filter = metrics.start();
+		List<Node> toProcessNode = getNodes(type).stream()
+												 .filter(node -> !(treated.contains(node)) && node!=departure)
+												 .collect(Collectors.toList());
+		metrics.recordFilter(filter);
+
+		if (!cached) {
+			// a single search gives the distances to all the candidates, in the same order as the paths below
+			SearchWorkspace workspace = adjacency.searchAll(departure.getId(), nodesfilter.getMask(), linksfilter.getMask());
+			for (Node node : toProcessNode){
+				if (workspace.getDistance(node.getId())<distance){
+					nearestNode = node;
+					distance = workspace.getDistance(node.getId());
+				}
+			}
+		} else {
+			for (Node node : toProcessNode){
+				try {
+					links = findShortestItinerary(departure, node, nodesfilter, linksfilter);
+					if (getDistancePath(links)<distance){
+						nearestNode = node;
+						distance = getDistancePath(links);
+					}
+				} catch (ItineraryException e) {}
+			}
+		}
+
+		if (nearestNode == null)
+			throw new ItineraryException("Construction du chemin impossible");
+
+		return nearestNode;
+	}
+
+	/**
+	 * Transform a list of Links into a list of Nodes
+	 * @param departure The first <code>Node</code>, the only one if the list is empty
+	 * @param list The list of <code>Links</code> starting from <code>departure</code>
+	 * @return nodeList
+	 */
+	private List<Node> getNodesFromLinkList(Node departure, List<Link> list) {
+
+		if (list.isEmpty())
+			return new ArrayList<>(List.of(departure));
+
+		List<Node> nodeList = list.stream()
+								  .map(link -> link.getDeparture())
+								  .collect(Collectors.toList());
+
+		nodeList.add(getArrivalLinkList(list));
+
+		return nodeList;
+	}
+
+	/**
+	 * @param list The list of <code>Links</code>
+	 * @return The destination of the last <code>Link</code> in the list
+	 */
+	private Node getArrivalLinkList(List<Link> list) {
+		if (list.isEmpty())
+			return null;
+		else
+			return list.get(list.size()-1).getDestination();
+	}
+
+}
@@ -63,7 +63,8 @@ public final class Link implements Comparable<Link> {
 	
 	@Override
 	public int hashCode(){
-		return Objects.hash(type, distance);
+		// symmetric in the departure and the destination like equals
+		return Objects.hash(type, distance) + departure.hashCode() + destination.hashCode();
 	}
 	
 	@Override
@@ -0,0 +1,363 @@
+package grama.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The class representing the profile of a loading of a <code>Graph</code>, filled by <code>Graph.load(fileName, report)</code>
+ * <p>It tells how fast the file was read, where the time went, how much memory was allocated, and what looks wrong in the file: names given to several <code>Nodes</code>, the last one replacing the others, <code>Links</code> going back to their departure, and <code>Nodes</code> with far more <code>Links</code> than a road network has</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class LoadReport {
+
+	/**
+	 * The phases of a loading
+	 */
+	public enum Phase {
+		READING("Lecture"),
+		TOKENIZING("Découpage"),
+		RESOLVING("Résolution des destinations"),
+		BUILDING("Construction"),
+		INDEXING("Indexation");
+
+		private final String name;
+
+		Phase(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * The number of <code>Links</code> above which a <code>Node</code> is reported by default
+	 */
+	public static final int DEFAULT_HIGH_DEGREE = 50;
+
+	// the number of names kept in the lists, the others being only counted
+	private static final int MAX_LISTED = 20;
+
+	// the heap is sampled once every SAMPLE_MASK + 1 phases recorded
+	private static final int SAMPLE_MASK = 4095;
+
+	private static final List<MemoryPoolMXBean> HEAP_POOLS = getHeapPools();
+
+	/**
+	 * The report filling nothing, used when the caller doesn't want one
+	 */
+	static final LoadReport DISABLED = new LoadReport(false, Integer.MAX_VALUE);
+
+	private final boolean enabled;
+	private final int highDegree;
+
+	private String fileName = null;
+	private long bytes = 0;
+	private int rows = 0;
+	private int links = 0;
+	private int nodes = 0;
+	private long start = 0;
+	private long nanos = 0;
+	private final long[] phases = new long[Phase.values().length];
+	private long allocatedBytes = -1;
+	private long startHeapBytes = -1;
+	private long peakHeapBytes = -1;
+	private int records = 0;
+
+	private int duplicates = 0;
+	private final List<String> duplicateNames = new ArrayList<>();
+	private int selfLinks = 0;
+	private final List<Node> highDegreeNodes = new ArrayList<>();
+	private int highDegreeCount = 0;
+
+	/**
+	 * Creates a report of the <code>Nodes</code> with more than <code>DEFAULT_HIGH_DEGREE</code> <code>Links</code>
+	 */
+	public LoadReport() {
+		this(DEFAULT_HIGH_DEGREE);
+	}
+
+	/**
+	 * @param highDegree The number of <code>Links</code> above which a <code>Node</code> is reported
+	 */
+	public LoadReport(int highDegree) {
+		this(true, highDegree);
+	}
+
+	private LoadReport(boolean enabled, int highDegree) {
+		this.enabled = enabled;
+		this.highDegree = highDegree;
+	}
+
+	/**
+	 * Starts the measure of a loading, forgetting the previous one
+	 * <p>The peaks kept by the JVM aren't reset, the heap being only sampled during the loading so the other measures of the memory in the application aren't disturbed</p>
+	 * @param fileName The name of the file loaded
+	 * @param bytes The size of the file in bytes
+	 */
+	void begin(String fileName, long bytes) {
+		if (!enabled)
+			return;
+		this.fileName = fileName;
+		this.bytes = bytes;
+		rows = links = nodes = duplicates = selfLinks = highDegreeCount = 0;
+		duplicateNames.clear();
+		highDegreeNodes.clear();
+		Arrays.fill(phases, 0);
+
+		startHeapBytes = peakHeapBytes = getHeapBytes();
+		records = 0;
+		allocatedBytes = -getThreadAllocatedBytes();
+		start = System.nanoTime();
+	}
+
+	/**
+	 * @return Returns the current value of <code>System.nanoTime</code>, or 0 if the report is disabled
+	 */
+	long time() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Adds the time elapsed since <code>start</code> to a phase
+	 * @param phase The phase which just ended
+	 * @param start The value returned by <code>time()</code> when it started
+	 * @return Returns the current time, the start of the next phase
+	 */
+	long record(Phase phase, long start) {
+		if (!enabled)
+			return 0;
+		long now = System.nanoTime();
+		phases[phase.ordinal()] += now - start;
+		if ((++records & SAMPLE_MASK) == 0)
+			peakHeapBytes = Math.max(peakHeapBytes, getHeapBytes());
+		return now;
+	}
+
+	/**
+	 * Counts a row of the file, with its <code>Links</code>
+	 * @param rowLinks The number of <code>Links</code> of the row
+	 */
+	void countRow(int rowLinks) {
+		if (!enabled)
+			return;
+		rows++;
+		links += rowLinks;
+	}
+
+	/**
+	 * @param name The name of a <code>Node</code> which replaced another one with the same name
+	 */
+	void addDuplicate(String name) {
+		if (!enabled)
+			return;
+		if (duplicates++ < MAX_LISTED)
+			duplicateNames.add(name);
+	}
+
+	/**
+	 * Ends the measure once the <code>Graph</code> is indexed, and looks for the suspicious <code>Nodes</code>
+	 * @param loaded The <code>Nodes</code> loaded
+	 */
+	void end(List<Node> loaded) {
+		if (!enabled)
+			return;
+		nanos = System.nanoTime() - start;
+		allocatedBytes += getThreadAllocatedBytes();
+		peakHeapBytes = Math.max(peakHeapBytes, getHeapBytes());
+
+		nodes = loaded.size();
+		for (Node node: loaded) {
+			for (Link link: node.getNodeLinks())
+				if (link.getDestination() == node)
+					selfLinks++;
+			if (node.getNodeLinks().size() > highDegree) {
+				highDegreeCount++;
+				highDegreeNodes.add(node);
+			}
+		}
+		highDegreeNodes.sort((a, b) -> b.getNodeLinks().size() - a.getNodeLinks().size());
+		if (highDegreeNodes.size() > MAX_LISTED)
+			highDegreeNodes.subList(MAX_LISTED, highDegreeNodes.size()).clear();
+	}
+
+	/**
+	 * @return Returns the pools of memory of the heap
+	 */
+	private static List<MemoryPoolMXBean> getHeapPools() {
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pools.add(pool);
+		return pools;
+	}
+
+	/**
+	 * @return Returns the bytes currently used in the heap, by all the threads
+	 */
+	private static long getHeapBytes() {
+		long used = 0;
+		for (MemoryPoolMXBean pool: HEAP_POOLS)
+			used += pool.getUsage().getUsed();
+		return used;
+	}
+
+	/**
+	 * @return Returns the bytes allocated by the current thread since it started, or 0 if the JVM doesn't count them
+	 */
+	private static long getThreadAllocatedBytes() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * @return Returns the name of the file loaded
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * @return Returns the size of the file in bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return Returns the number of rows parsed
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return Returns the number of <code>Links</code> parsed
+	 */
+	public int getLinks() {
+		return links;
+	}
+
+	/**
+	 * @return Returns the number of <code>Nodes</code> loaded, fewer than the rows if some names are duplicated
+	 */
+	public int getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return Returns the time of the whole loading in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @param phase A phase of the loading
+	 * @return Returns the time spent in the phase in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	/**
+	 * @return Returns the number of bytes of the file read per second
+	 */
+	public double getBytesPerSecond() {
+		return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+	}
+
+	/**
+	 * @return Returns the bytes allocated by the loading thread, or -1 if they weren't measured
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return Returns the memory used by the heap when the loading started, or -1 if it wasn't measured
+	 */
+	public long getStartHeapBytes() {
+		return startHeapBytes;
+	}
+
+	/**
+	 * @return Returns the highest memory used by the heap during the loading as sampled between its phases, or -1 if it wasn't measured
+	 */
+	public long getPeakHeapBytes() {
+		return peakHeapBytes;
+	}
+
+	/**
+	 * @return Returns the number of rows whose name was already taken, the <code>Node</code> of the last one being kept
+	 */
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return Returns the first duplicated names
+	 */
+	public List<String> getDuplicateNames() {
+		return Collections.unmodifiableList(duplicateNames);
+	}
+
+	/**
+	 * @return Returns the number of <code>Links</code> going back to their departure
+	 */
+	public int getSelfLinks() {
+		return selfLinks;
+	}
+
+	/**
+	 * @return Returns the number of <code>Nodes</code> with more <code>Links</code> than the threshold
+	 */
+	public int getHighDegreeCount() {
+		return highDegreeCount;
+	}
+
+	/**
+	 * @return Returns the <code>Nodes</code> with the most <code>Links</code> above the threshold, the most linked first
+	 */
+	public List<Node> getHighDegreeNodes() {
+		return Collections.unmodifiableList(highDegreeNodes);
+	}
+
+	/**
+	 * @return Returns <code>true</code> if the file has duplicated names, <code>Links</code> to their departure or <code>Nodes</code> with too many <code>Links</code>
+	 */
+	public boolean hasWarnings() {
+		return duplicates > 0 || selfLinks > 0 || highDegreeCount > 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(Locale.ROOT, "%s : %d octets, %d lignes, %d noeuds, %d liens en %.1f ms (%.1f Mo/s)%n", fileName, bytes, rows, nodes, links, nanos / 1e6, getBytesPerSecond() / (1024 * 1024)));
+		for (Phase phase: Phase.values())
+			report.append(String.format(Locale.ROOT, "  %s : %.1f ms%n", phase, phases[phase.ordinal()] / 1e6));
+		report.append(String.format(Locale.ROOT, "  Mémoire : %d octets alloués, pic du tas %d octets (%d au départ)%n", allocatedBytes, peakHeapBytes, startHeapBytes));
+		if (duplicates > 0)
+			report.append(String.format("  %d noms en double, remplacés : %s%n", duplicates, duplicateNames));
+		if (selfLinks > 0)
+			report.append(String.format("  %d liens vers leur propre départ%n", selfLinks));
+		if (highDegreeCount > 0) {
+			report.append(String.format("  %d noeuds de plus de %d liens :", highDegreeCount, highDegree));
+			for (Node node: highDegreeNodes)
+				report.append(' ').append(node.getName()).append(" (").append(node.getNodeLinks().size()).append(')');
+			report.append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+
+}
@@ -0,0 +1,70 @@
+package grama.model;
+
+import java.util.Arrays;
+
+/**
+ * The class representing a binary min-heap of <code>long</code> values, used as a priority queue of ids packed with their priority in the high bits
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+final class LongHeap {
+
+	private long[] values = new long[16];
+	private int size = 0;
+
+	/**
+	 * @return Returns <code>true</code> if the heap has no value
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all the values, keeping the array
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @param value The value to add
+	 */
+	void push(long value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, size * 2);
+
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (values[parent] <= value)
+				break;
+			values[i] = values[parent];
+			i = parent;
+		}
+		values[i] = value;
+	}
+
+	/**
+	 * @return Returns and removes the smallest value
+	 */
+	long pop() {
+		long smallest = values[0];
+		long last = values[--size];
+
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && values[child + 1] < values[child])
+				child++;
+			if (last <= values[child])
+				break;
+			values[i] = values[child];
+			i = child;
+		}
+		if (size > 0)
+			values[i] = last;
+		return smallest;
+	}
+
+}
@@ -0,0 +1,98 @@
+package grama.model;
+
+import java.util.Arrays;
+
+/**
+ * The class representing a map from <code>long</code> keys to <code>int</code> values of zero or more with open addressing, so neither the keys nor the values are boxed
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+final class LongIntMap {
+
+	/**
+	 * The value returned for the keys which aren't in the map
+	 */
+	static final int MISSING = -1;
+
+	private long[] keys;
+	private int[] values;
+	private int size = 0;
+
+	/**
+	 * @param expected The number of keys expected, the map growing if there are more
+	 */
+	LongIntMap(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, MISSING);
+	}
+
+	/**
+	 * @return Returns the number of keys
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param key A key
+	 * @return Returns the value of <code>key</code>, or <code>MISSING</code> if it isn't in the map
+	 */
+	int get(long key) {
+		for (int slot = slot(key, keys.length); values[slot] != MISSING; slot = (slot + 1) & (keys.length - 1))
+			if (keys[slot] == key)
+				return values[slot];
+		return MISSING;
+	}
+
+	/**
+	 * @param key A key
+	 * @param value The value, zero or more, given to <code>key</code> if it isn't in the map yet
+	 * @return Returns the value of <code>key</code>, the one already in the map if there's one
+	 */
+	int putIfAbsent(long key, int value) {
+		int slot = slot(key, keys.length);
+		for (; values[slot] != MISSING; slot = (slot + 1) & (keys.length - 1))
+			if (keys[slot] == key)
+				return values[slot];
+
+		keys[slot] = key;
+		values[slot] = value;
+		// the map is kept at most half full, so the probes stay short
+		if (++size * 2 > keys.length)
+			grow();
+		return value;
+	}
+
+	/**
+	 * Doubles the capacity of the map
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		Arrays.fill(values, MISSING);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] == MISSING)
+				continue;
+			int slot = slot(oldKeys[i], keys.length);
+			while (values[slot] != MISSING)
+				slot = (slot + 1) & (keys.length - 1);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	/**
+	 * @param key A key
+	 * @param capacity The length of the arrays, a power of two
+	 * @return Returns the first slot where <code>key</code> is looked for
+	 */
+	private static int slot(long key, int capacity) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int)(hash ^ (hash >>> 32)) & (capacity - 1);
+	}
+
+}
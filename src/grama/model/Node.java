@@ -1,10 +1,12 @@
 package grama.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +24,11 @@ public final class Node implements Comparable<Node> {
 	private final double ratioX;
 	private final double ratioY;
 	
+	private int id = -1;
+	
+	// the number of Nodes of each type at two jumps or less, computed the first time it's needed
+	private volatile CounterNodeType twoJumpsCounter = null;
+	
 	/**
 	 * Creates a new <code>Node</code>
 	 * @param type The type of the <code>Node</code>
@@ -51,6 +58,20 @@ public final class Node implements Comparable<Node> {
 		return ratioY;
 	}
 	
+	/**
+	 * @return Returns the index of this <code>Node</code> in its <code>Graph</code>, between 0 and the number of <code>Nodes</code> excluded, or -1 if it doesn't belong to a <code>Graph</code>
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * @param id The index of this <code>Node</code> in its <code>Graph</code>
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
+	
 	/**
 	 * @return Returns the type of this <code>Node</code>
 	 */
@@ -77,9 +98,19 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>List</code> of all the <code>Links</code> with the right type connected to this Node
 	 */
 	public List<Link> getNodeLinks(List <LinkType> types) {
-		return linkList.stream()
-					   .filter(link -> types.contains(link.getType()))
-					   .collect(Collectors.toList());
+		return getNodeLinks(TypeFilter.ofLinks(types));
+	}
+	
+	/**
+	 * @param types The filter of the <code>Link</code> types we want
+	 * @return Returns the <code>List</code> of all the <code>Links</code> with the right type connected to this Node
+	 */
+	public List<Link> getNodeLinks(TypeFilter<LinkType> types) {
+		List<Link> links = new ArrayList<>();
+		for (Link link: linkList)
+			if (types.accepts(link.getType()))
+				links.add(link);
+		return links;
 	}
 	
 	/**
@@ -122,8 +153,17 @@ public final class Node implements Comparable<Node> {
 	 * @return The directly connected <code>nodes</code> links
 	 */
 	public List<Node> getNeighbors(List<NodeType> nodesFilter, List<LinkType> linksFilter){
+		return getNeighbors(TypeFilter.ofNodes(nodesFilter), TypeFilter.ofLinks(linksFilter));
+	}
+	
+	/**
+	 * @param nodesFilter The filter of the <code>Node</code> types we want
+	 * @param linksFilter The filter of the <code>Link</code> types we want
+	 * @return The directly connected <code>nodes</code> links
+	 */
+	public List<Node> getNeighbors(TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter){
 		return linkList.stream()
-					   .filter(link -> linksFilter.contains(link.getType()) && nodesFilter.contains(link.getDestination().getType()))
+					   .filter(link -> linksFilter.accepts(link.getType()) && nodesFilter.accepts(link.getDestination().getType()))
 					   .distinct()
 					   .map(link -> link.getDestination())
 					   .collect(Collectors.toList());
@@ -135,7 +175,7 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>List</code> of all the <code>Nodes</code> you can go to by making <code>nbJumps</code> jumps or less from this <code>Node</code>
 	 */
 	public List<Node> getNeighbors(int nbJumps){
-		return getNeighbors(nbJumps,Arrays.asList(LinkType.values()));
+		return getNeighbors(nbJumps, TypeFilter.all(LinkType.class));
 	}
 	
 	/**
@@ -144,7 +184,16 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>List</code> of all the <code>Nodes</code> you can go to by making <code>nbJumps</code> jumps and only going through <code>Links</code> of type <code>linkTypes</code> or less from this <code>Node</code>
 	 */
 	public List<Node> getNeighbors(int nbJumps, List<LinkType> linkTypes){
-		return getNeighborsMap(linkTypes).entrySet().stream()
+		return getNeighbors(nbJumps, TypeFilter.ofLinks(linkTypes));
+	}
+	
+	/**
+	 * @param nbJumps The number of jumps we have to do
+	 * @param linkTypes The filter of the types of <code>Links</code> we want to get
+	 * @return Returns the <code>List</code> of all the <code>Nodes</code> you can go to by making <code>nbJumps</code> jumps and only going through <code>Links</code> of type <code>linkTypes</code> or less from this <code>Node</code>
+	 */
+	public List<Node> getNeighbors(int nbJumps, TypeFilter<LinkType> linkTypes){
+		return getNeighborsMap(linkTypes, nbJumps).entrySet().stream()
 										 .filter(entree -> entree.getValue() <= nbJumps || entree.getKey() == this )
 										 .map(entree -> entree.getKey())
 										 .collect(Collectors.toList());
@@ -156,7 +205,16 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>List</code> of all the <code>Nodes</code> you can go to by making exactly <code>nbJumps</code> jumps and only going through <code>Links</code> of type <code>linkTypes</code> or less from this <code>Node</code>
 	 */
 	public List<Node> getExaclyNeighbors(int nbJumps, List<LinkType> linkTypes){
-		return getNeighborsMap(linkTypes).entrySet().stream()
+		return getExaclyNeighbors(nbJumps, TypeFilter.ofLinks(linkTypes));
+	}
+	
+	/**
+	 * @param nbJumps The exact number of jumps we have to do
+	 * @param linkTypes The filter of the types of <code>Links</code> we want to get
+	 * @return Returns the <code>List</code> of all the <code>Nodes</code> you can go to by making exactly <code>nbJumps</code> jumps and only going through <code>Links</code> of type <code>linkTypes</code> or less from this <code>Node</code>
+	 */
+	public List<Node> getExaclyNeighbors(int nbJumps, TypeFilter<LinkType> linkTypes){
+		return getNeighborsMap(linkTypes, nbJumps).entrySet().stream()
 										 .filter(entree ->  entree.getValue() == nbJumps || entree.getKey() == this )
 										 .map(entree -> entree.getKey())
 										 .collect(Collectors.toList());
@@ -167,13 +225,29 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>Map</code> of all the <code>Nodes</code> with the minimum number of jumps between them and this <code>Node</code>
 	 */
 	public HashMap<Node,Integer> getNeighborsMap(List<LinkType> linkTypes){
+		return getNeighborsMap(TypeFilter.ofLinks(linkTypes));
+	}
+	
+	/**
+	 * @param linkTypes The filter of the types of <code>Links</code> we want to get
+	 * @return Returns the <code>Map</code> of all the <code>Nodes</code> with the minimum number of jumps between them and this <code>Node</code>
+	 */
+	public HashMap<Node,Integer> getNeighborsMap(TypeFilter<LinkType> linkTypes){
+		return getNeighborsMap(linkTypes, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * @param linkTypes The filter of the types of <code>Links</code> we want to get
+	 * @param maxJumps The maximum number of jumps, the search stops at this depth
+	 * @return Returns the <code>Map</code> of the <code>Nodes</code> at <code>maxJumps</code> jumps or less with the minimum number of jumps between them and this <code>Node</code>
+	 */
+	public HashMap<Node,Integer> getNeighborsMap(TypeFilter<LinkType> linkTypes, int maxJumps){
 		
 		LinkedList<Node> queue = new LinkedList<>();
-		List<Node> visited = new ArrayList<>();
 		
+		// the visited nodes are the keys of the map
 		HashMap<Node,Integer> distanceMap = new HashMap<>();
 
-		visited.add(this);
 		queue.add(this);
 		
 		distanceMap.put(this, 0);
@@ -181,14 +255,16 @@ public final class Node implements Comparable<Node> {
 		while(!queue.isEmpty()){
 			
 			Node node = queue.poll();
+			int distance = distanceMap.get(node);
+			if (distance >= maxJumps)
+				continue;
 			
-			for (Link link : node.getNodeLinks(linkTypes)){
+			for (Link link : node.linkList){
 				Node neighbor = link.getDestination();
 				
-				if (!(visited.contains(neighbor))){
-					visited.add(neighbor);
+				if (linkTypes.accepts(link.getType()) && !distanceMap.containsKey(neighbor)){
 					queue.add(neighbor);
-					distanceMap.put(neighbor,distanceMap.get(node)+1);
+					distanceMap.put(neighbor, distance+1);
 				}
 			}
 		}
@@ -202,6 +278,15 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns the <code>List</code> of all the <code>Nodes</code> of type <code>type</code> you can go to by making <code>nbJumps</code> jumps or less from this <code>Node</code>
 	 */
 	public List<Node> getFilteredNeighbors(int nbJumps, List<NodeType> types) {
+		return getFilteredNeighbors(nbJumps, TypeFilter.ofNodes(types));
+	}
+	
+	/**
+	 * @param nbJumps The number of jumps we have to do
+	 * @param types The filter of the types of <code>Node</code> we want to get
+	 * @return Returns the <code>List</code> of all the <code>Nodes</code> of type <code>type</code> you can go to by making <code>nbJumps</code> jumps or less from this <code>Node</code>
+	 */
+	public List<Node> getFilteredNeighbors(int nbJumps, TypeFilter<NodeType> types) {
 		return filterByType(getNeighbors(nbJumps), types);
 	}
 	
@@ -211,8 +296,17 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns a <code>List</code> of <code>Nodes</code> filtered by the <code>List</code> of <code>Links</code>
 	 */
 	public List<Node> filterByType(List<Node> nodes, List<NodeType> types){
+		return filterByType(nodes, TypeFilter.ofNodes(types));
+	}
+	
+	/**
+	 * @param nodes The <code>List</code> of <code>Nodes</code>
+	 * @param types The filter of the types of <code>Nodes</code>
+	 * @return Returns a <code>List</code> of <code>Nodes</code> filtered by the types of <code>Nodes</code>
+	 */
+	public List<Node> filterByType(List<Node> nodes, TypeFilter<NodeType> types){
 		return nodes.stream()
-					.filter(node -> types.contains(node.getType()) || node == this)
+					.filter(node -> types.accepts(node.getType()) || node == this)
 					.collect(Collectors.toList());
 	}
 	
@@ -222,6 +316,7 @@ public final class Node implements Comparable<Node> {
 	 */
 	public void addLink(Link link) {
 		linkList.add(link);
+		clearCounters();
 	}
 	
 	/**
@@ -232,8 +327,20 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns <code>true</code> if the <code>Nodes</code> are at two distance from each other
 	 */
 	public boolean isTwoDistance(Node target, List<NodeType> nodesFilter, List<LinkType> linksFilter) {
+		return isTwoDistance(target, TypeFilter.ofNodes(nodesFilter), TypeFilter.ofLinks(linksFilter));
+	}
+	
+	/**
+	 * Tells us if this <code>Node</code> is exactly at two distances from the target <code>Node</code>
+	 * @param target The targeted <code>Node</code>
+	 * @param nodesFilter filter by type of nodes requested
+	 * @param linksFilter filter by type of links requested
+	 * @return Returns <code>true</code> if the <code>Nodes</code> are at two distance from each other
+	 */
+	public boolean isTwoDistance(Node target, TypeFilter<NodeType> nodesFilter, TypeFilter<LinkType> linksFilter) {
+		Set<Node> targetNeighbors = new HashSet<>(target.getNeighbors(nodesFilter, linksFilter));
 		return getNeighbors(nodesFilter, linksFilter).stream()
-													 .anyMatch(node -> target.getNeighbors(nodesFilter, linksFilter).contains(node));
+													 .anyMatch(targetNeighbors::contains);
 	}
 	
 	/**
@@ -243,10 +350,8 @@ public final class Node implements Comparable<Node> {
 	 * @return Returns <code>true</code> if this <code>Node</code> has the same number of two jumps neighbors of type <code>type</code> than the <code>target Node</code> or more
 	 */
 	public int isMoreLinkedToType(Node target, NodeType type) {
-		List<NodeType> types = new ArrayList<>();
-		types.add(type);
-		int nbNode = getFilteredNeighbors(2, types).size();
-		int nbTarget = target.getFilteredNeighbors(2, types).size();
+		int nbNode = getTwoJumpsCount(type);
+		int nbTarget = target.getTwoJumpsCount(type);
 		if (nbNode > nbTarget)
 			return 1;
 		else if (nbNode < nbTarget)
@@ -255,6 +360,37 @@ public final class Node implements Comparable<Node> {
 			return 0;
 	}
 	
+	/**
+	 * @param type The type of <code>Node</code> we're counting
+	 * @return Returns the number of <code>Nodes</code> of type <code>type</code>, other than this one, at two jumps or less through any type of <code>Link</code>
+	 */
+	public int getTwoJumpsCount(NodeType type) {
+		CounterNodeType counter = twoJumpsCounter;
+		if (counter == null) {
+			// a concurrent call may count too, both get the same result
+			counter = new CounterNodeType();
+			for (Node node: getNeighborsMap(TypeFilter.all(LinkType.class), 2).keySet())
+				if (node != this)
+					counter.incrementType(node.getType());
+			twoJumpsCounter = counter;
+		}
+		return counter.getNumber(type);
+	}
+	
+	/**
+	 * Forgets the counted two jumps neighbors, which are counted again the next time they're needed
+	 */
+	void clearCounters() {
+		twoJumpsCounter = null;
+	}
+	
+	/**
+	 * @param counter The number of <code>Nodes</code> of each type at two jumps or less, counted by the <code>Graph</code>
+	 */
+	void setTwoJumpsCounter(CounterNodeType counter) {
+		twoJumpsCounter = counter;
+	}
+	
 	/**
 	 * Evaluates if this <code>Node</code> is equal to the specified <code>Object</code>
 	 * @param o The <code>Object</code> we want to compare to this <code>Node</code>
@@ -269,6 +405,11 @@ public final class Node implements Comparable<Node> {
 		return name.equals(p.name) && type == p.type;
 	}
 	
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, type);
+	}
+	
 	/**
 	 * Compares this <code>Node</code>'s name to the specified <code>Node</code>'s name
 	 * @param node The <code>Node</code> we want to compare to this <code>Node</code>
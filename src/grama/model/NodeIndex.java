@@ -0,0 +1,358 @@
+package grama.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The class representing an index of the names of the <code>Nodes</code> of a <code>Graph</code>, searched without case nor accents
+ * <p>The normalized names are sorted, so the names starting with a prefix are a range found by a binary search. A trigram index finds the names close to a misspelled query, reading the <code>Nodes</code> of its rarest trigrams first so the search stays bounded on large graphs</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public class NodeIndex {
+
+	/**
+	 * The minimum similarity, between 0 and 1, of the names returned by a fuzzy search
+	 */
+	public static final double FUZZY_THRESHOLD = 0.3;
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	// the number of Nodes compared with the query by a fuzzy search, and the number of Nodes above which a trigram is too common to be read
+	private static final int MAX_CANDIDATES = 2048;
+	private static final int MAX_FREQUENCY = 16 * MAX_CANDIDATES;
+
+	private final List<Node> nodes;
+
+	// the normalized names by id, the same names sorted, and the id of the Node of each sorted name
+	private final String[] names;
+	private final String[] keys;
+	private final int[] ids;
+
+	// the number of each trigram, the ids of the Nodes containing each trigram packed one after the other, and the number of trigrams of each Node
+	private final LongIntMap trigrams;
+	private final int[] postingStarts;
+	private final int[] postings;
+	private final int[] trigramCounts;
+
+	/**
+	 * Indexes the names of <code>nodes</code>
+	 * @param nodes The <code>Nodes</code> indexed by their id
+	 */
+	public NodeIndex(List<Node> nodes) {
+		this.nodes = nodes;
+		int size = nodes.size();
+
+		names = new String[size];
+		keys = new String[size];
+		ids = new int[size];
+		for (int id = 0; id < size; id++) {
+			names[id] = normalize(nodes.get(id).getName());
+			keys[id] = names[id];
+			ids[id] = id;
+		}
+		sort(keys, ids);
+
+		// first the trigrams are numbered and counted, the numbers of the distinct trigrams of each Node following each other
+		trigrams = new LongIntMap(1024);
+		trigramCounts = new int[size];
+		int[] numbers = new int[size * 8];
+		int[] frequencies = new int[1024];
+		int total = 0;
+		for (int id = 0; id < size; id++) {
+			String name = names[id];
+			if (total + name.length() + 1 > numbers.length)
+				numbers = Arrays.copyOf(numbers, Math.max(numbers.length * 2, total + name.length() + 1));
+			int start = total;
+			for (int i = 0; !name.isEmpty() && i <= name.length(); i++) {
+				int number = trigrams.putIfAbsent(getTrigram(name, i), trigrams.size());
+				boolean duplicate = false;
+				for (int j = start; j < total && !duplicate; j++)
+					duplicate = numbers[j] == number;
+				if (duplicate)
+					continue;
+				if (number == frequencies.length)
+					frequencies = Arrays.copyOf(frequencies, number * 2);
+				frequencies[number]++;
+				numbers[total++] = number;
+			}
+			trigramCounts[id] = total - start;
+		}
+
+		// then the ids are packed by trigram, in the order of the ids
+		postingStarts = new int[trigrams.size() + 1];
+		for (int number = 0; number < trigrams.size(); number++)
+			postingStarts[number + 1] = postingStarts[number] + frequencies[number];
+		postings = new int[total];
+		int[] filled = Arrays.copyOf(postingStarts, trigrams.size());
+		for (int id = 0, i = 0; id < size; id++)
+			for (int end = i + trigramCounts[id]; i < end; i++)
+				postings[filled[numbers[i]]++] = id;
+	}
+
+	/**
+	 * @param name A name
+	 * @return Returns <code>name</code> in lower case, without its accents nor the spaces around it
+	 */
+	public static String normalize(String name) {
+		return MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT).trim();
+	}
+
+	/**
+	 * @param name The name of the <code>Node</code>, with or without its case and accents
+	 * @return Returns the first <code>Node</code> whose normalized name is the normalized <code>name</code>, or <code>null</code> if there's none
+	 */
+	public Node find(String name) {
+		String key = normalize(name);
+		int i = lowerBound(key);
+		return i < keys.length && keys[i].equals(key) ? nodes.get(ids[i]) : null;
+	}
+
+	/**
+	 * @param prefix The beginning of the names
+	 * @param limit The maximum number of <code>Nodes</code> returned
+	 * @return Returns the <code>Nodes</code> whose name starts with <code>prefix</code>, ignoring the case and the accents, by alphabetical order
+	 */
+	public List<Node> startingWith(String prefix, int limit) {
+		String key = normalize(prefix);
+		List<Node> found = new ArrayList<>();
+		for (int i = lowerBound(key); i < keys.length && found.size() < limit && keys[i].startsWith(key); i++)
+			found.add(nodes.get(ids[i]));
+		return found;
+	}
+
+	/**
+	 * Searches the names sharing the most trigrams with <code>query</code>, so a misspelled name is still found
+	 * <p>The <code>Nodes</code> of the rarest trigrams of the query are compared first, and the search stops once <code>limit</code> of them are more similar than any <code>Node</code> left. The trigrams shared by too many <code>Nodes</code> are skipped unless the query has only such trigrams, and at most <code>MAX_CANDIDATES</code> <code>Nodes</code> are compared</p>
+	 * @param query The searched name
+	 * @param limit The maximum number of <code>Nodes</code> returned
+	 * @return Returns the <code>Nodes</code> whose similarity with <code>query</code> is at least <code>FUZZY_THRESHOLD</code>, the most similar first
+	 */
+	public List<Node> similarTo(String query, int limit) {
+		long[] queryTrigrams = getTrigrams(normalize(query));
+		if (queryTrigrams.length == 0 || limit <= 0)
+			return new ArrayList<>();
+
+		// the numbers of the trigrams of the query in the index, the rarest first
+		int[] numbers = new int[queryTrigrams.length];
+		int known = 0;
+		for (long trigram: queryTrigrams) {
+			int number = trigrams.get(trigram);
+			if (number == LongIntMap.MISSING)
+				continue;
+			int i = known++;
+			for (; i > 0 && getFrequency(numbers[i - 1]) > getFrequency(number); i--)
+				numbers[i] = numbers[i - 1];
+			numbers[i] = number;
+		}
+		Arrays.sort(queryTrigrams);
+
+		List<int[]> candidates = new ArrayList<>();
+		BitSet compared = new BitSet();
+		boolean[] matched = new boolean[queryTrigrams.length];
+		int budget = MAX_CANDIDATES;
+		for (int k = 0; k < known && budget > 0; k++) {
+			int number = numbers[k];
+			if (k > 0 && getFrequency(number) > MAX_FREQUENCY)
+				break;
+			for (int i = postingStarts[number]; i < postingStarts[number + 1] && budget > 0; i++) {
+				int id = postings[i];
+				if (compared.get(id))
+					continue;
+				compared.set(id);
+				budget--;
+				// the Dice coefficient, scaled to an int so the candidates are sorted without rounding issues
+				int score = 1000 * 2 * countShared(names[id], queryTrigrams, matched) / (queryTrigrams.length + trigramCounts[id]);
+				if (score >= FUZZY_THRESHOLD * 1000)
+					candidates.add(new int[] {score, id});
+			}
+
+			// the Nodes not compared yet have none of the trigrams read, which bounds their score
+			int remaining = known - k - 1;
+			int bound = 1000 * 2 * remaining / (queryTrigrams.length + remaining);
+			if (bound < FUZZY_THRESHOLD * 1000)
+				break;
+			int better = 0;
+			for (int[] candidate: candidates)
+				if (candidate[0] >= bound)
+					better++;
+			if (better >= limit)
+				break;
+		}
+		// only the best candidates are sorted, the lowest score kept being found by counting the scores
+		int[] scores = new int[1001];
+		for (int[] candidate: candidates)
+			scores[candidate[0]]++;
+		int lowest = 1000;
+		for (int kept = scores[lowest]; lowest > 0 && kept < limit; )
+			kept += scores[--lowest];
+		int cutoff = lowest;
+		candidates.removeIf(candidate -> candidate[0] < cutoff);
+		Collections.sort(candidates, (a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : nodes.get(a[1]).compareTo(nodes.get(b[1])));
+
+		List<Node> found = new ArrayList<>();
+		for (int i = 0; i < candidates.size() && i < limit; i++)
+			found.add(nodes.get(candidates.get(i)[1]));
+		return found;
+	}
+
+	/**
+	 * @param number The number of a trigram
+	 * @return Returns the number of <code>Nodes</code> containing the trigram
+	 */
+	private int getFrequency(int number) {
+		return postingStarts[number + 1] - postingStarts[number];
+	}
+
+	/**
+	 * @param key A normalized name
+	 * @param sortedTrigrams The sorted distinct trigrams of the query
+	 * @param matched The trigrams of the query already met in <code>key</code>, all <code>false</code> and reset before returning
+	 * @return Returns the number of distinct trigrams of <code>key</code> also in <code>sortedTrigrams</code>
+	 */
+	private static int countShared(String key, long[] sortedTrigrams, boolean[] matched) {
+		int shared = 0;
+		for (int i = 0; i <= key.length(); i++) {
+			int j = Arrays.binarySearch(sortedTrigrams, getTrigram(key, i));
+			if (j >= 0 && !matched[j]) {
+				matched[j] = true;
+				shared++;
+			}
+		}
+		Arrays.fill(matched, false);
+		return shared;
+	}
+
+	/**
+	 * @param query The beginning of a name, or a misspelled name
+	 * @param limit The maximum number of <code>Nodes</code> returned
+	 * @return Returns the <code>Nodes</code> whose name starts with <code>query</code>, followed by the ones with a similar name
+	 */
+	public List<Node> search(String query, int limit) {
+		List<Node> found = startingWith(query, limit);
+		if (found.size() < limit)
+			for (Node node: similarTo(query, limit))
+				if (found.size() < limit && !found.contains(node))
+					found.add(node);
+		return found;
+	}
+
+	/**
+	 * Sorts names with the ids following them, without boxing the ids, by a merge sort keeping the same names in their order
+	 * @param names The names to sort
+	 * @param ids The ids of the names, moved with them
+	 */
+	private static void sort(String[] names, int[] ids) {
+		int size = names.length;
+		// the runs of a few names are sorted by insertion, then merged two by two
+		int run = 16;
+		for (int start = 0; start < size; start += run) {
+			for (int i = start + 1; i < Math.min(start + run, size); i++) {
+				String name = names[i];
+				int id = ids[i];
+				int j = i;
+				for (; j > start && names[j - 1].compareTo(name) > 0; j--) {
+					names[j] = names[j - 1];
+					ids[j] = ids[j - 1];
+				}
+				names[j] = name;
+				ids[j] = id;
+			}
+		}
+
+		String[] fromNames = names;
+		int[] fromIds = ids;
+		String[] toNames = new String[size];
+		int[] toIds = new int[size];
+		for (int width = run; width < size; width *= 2) {
+			for (int low = 0; low < size; low += 2 * width) {
+				int middle = Math.min(low + width, size);
+				int high = Math.min(low + 2 * width, size);
+				// the halves already in order, frequent in the files sorted by name, are copied without comparing them
+				if (middle == high || fromNames[middle - 1].compareTo(fromNames[middle]) <= 0) {
+					System.arraycopy(fromNames, low, toNames, low, high - low);
+					System.arraycopy(fromIds, low, toIds, low, high - low);
+					continue;
+				}
+				for (int i = low, left = low, right = middle; i < high; i++) {
+					int next = right >= high || (left < middle && fromNames[left].compareTo(fromNames[right]) <= 0) ? left++ : right++;
+					toNames[i] = fromNames[next];
+					toIds[i] = fromIds[next];
+				}
+			}
+			String[] swapNames = fromNames;
+			fromNames = toNames;
+			toNames = swapNames;
+			int[] swapIds = fromIds;
+			fromIds = toIds;
+			toIds = swapIds;
+		}
+		if (fromNames != names) {
+			System.arraycopy(fromNames, 0, names, 0, size);
+			System.arraycopy(fromIds, 0, ids, 0, size);
+		}
+	}
+
+	/**
+	 * @param key A normalized name
+	 * @return Returns the index of the first sorted name greater or equal to <code>key</code>
+	 */
+	private int lowerBound(String key) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].compareTo(key) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @param key A normalized name
+	 * @return Returns the distinct trigrams of <code>key</code> padded with spaces, three characters packed in each <code>long</code>
+	 */
+	private static long[] getTrigrams(String key) {
+		if (key.isEmpty())
+			return new long[0];
+
+		long[] found = new long[key.length() + 1];
+		int count = 0;
+		for (int i = 0; i < found.length; i++) {
+			long trigram = getTrigram(key, i);
+			boolean duplicate = false;
+			for (int j = 0; j < count && !duplicate; j++)
+				duplicate = found[j] == trigram;
+			if (!duplicate)
+				found[count++] = trigram;
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * @param key A normalized name
+	 * @param i The index of the trigram, from 0 to the length of <code>key</code>
+	 * @return Returns the trigram starting at <code>i</code> in <code>key</code> padded with two spaces before and one after
+	 */
+	private static long getTrigram(String key, int i) {
+		return ((long)getPadded(key, i) << 32) | ((long)getPadded(key, i + 1) << 16) | getPadded(key, i + 2);
+	}
+
+	/**
+	 * @param key A normalized name
+	 * @param i The index of a character in <code>key</code> padded with two spaces before and one after
+	 * @return Returns the character
+	 */
+	private static char getPadded(String key, int i) {
+		return i < 2 || i - 2 >= key.length() ? ' ' : key.charAt(i - 2);
+	}
+
+}
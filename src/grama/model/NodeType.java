@@ -1,8 +1,14 @@
 package grama.model;
 
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.imageio.ImageIO;
 
 /**
@@ -12,21 +18,19 @@ import javax.imageio.ImageIO;
  */
 public enum NodeType {
 	
-	CITY("Ville", "./src/grama/view/city.png"),
-	RESTAURANT("Restaurant", "./src/grama/view/restaurant.png"),
-	RECREATION("Loisir", "./src/grama/view/recreation.png");
+	CITY("Ville", "/grama/view/city.png"),
+	RESTAURANT("Restaurant", "/grama/view/restaurant.png"),
+	RECREATION("Loisir", "/grama/view/recreation.png");
 	
 	private String name;
+	private String imageSrc;
 	private BufferedImage image;
+	private boolean imageLoaded = false;
+	private final Map<Integer, BufferedImage> icons = new ConcurrentHashMap<>();
 	
 	NodeType(String name, String imageSrc) {
 		this.name = name;
-		
-		try {
-			this.image = ImageIO.read(new File(imageSrc));
-		} catch (IOException e) {
-			System.err.println("Warning : Image couldn't be loaded");
-		}
+		this.imageSrc = imageSrc;
 	}
 	
 	/**
@@ -45,12 +49,61 @@ public enum NodeType {
 	}
 	
 	/**
-	 * @return Returns the icon that will be used in the graph visualization to represent this type
+	 * @return Returns the character used in the CSV to describe this type
+	 */
+	public char getCharID() {
+		return name.charAt(0);
+	}
+	
+	/**
+	 * @return Returns the full-size icon that will be used in the graph visualization to represent this type, loaded from the classpath the first time it's needed, or <code>null</code> if it couldn't be loaded
 	 */
-	public BufferedImage getImage(){
+	public synchronized BufferedImage getImage(){
+		if (!imageLoaded) {
+			imageLoaded = true;
+			try {
+				URL url = NodeType.class.getResource(imageSrc);
+				if (url == null)
+					throw new IOException(imageSrc + " not found");
+				image = ImageIO.read(url);
+			} catch (IOException e) {
+				System.err.println("Warning : Image couldn't be loaded");
+			}
+		}
 		return image;
 	}
 	
+	/**
+	 * @param size The width and height in pixels of the icon
+	 * @return Returns the icon of this type scaled once to <code>size</code> in an image compatible with the screen, so it can be drawn without scaling, or <code>null</code> if it couldn't be loaded
+	 */
+	public BufferedImage getIcon(int size) {
+		BufferedImage icon = icons.get(size);
+		if (icon == null && getImage() != null) {
+			icon = createCompatibleImage(size);
+			Graphics2D graphic = icon.createGraphics();
+			graphic.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+			graphic.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphic.drawImage(getImage(), 0, 0, size, size, null);
+			graphic.dispose();
+			icons.put(size, icon);
+		}
+		return icon;
+	}
+	
+	/**
+	 * @param size The width and height in pixels of the image
+	 * @return Returns a transparent image in the format of the screen, or a default one if there's no screen
+	 */
+	private static BufferedImage createCompatibleImage(int size) {
+		if (GraphicsEnvironment.isHeadless())
+			return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+								  .getDefaultScreenDevice()
+								  .getDefaultConfiguration()
+								  .createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+	}
+	
 	/**
 	 * @return Returns the name of this type
 	 */
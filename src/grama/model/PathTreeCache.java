@@ -0,0 +1,147 @@
+package grama.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class representing a cache of the last <code>ShortestPathTrees</code> used, by departure and filters, bounded by the memory they use
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class PathTreeCache {
+
+	/**
+	 * The memory the trees may use by default, in bytes
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+	private final long maxBytes;
+	private long bytes = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	// in access order, so the first tree is the least recently used
+	private final Map<Long, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Creates a cache using at most <code>DEFAULT_MAX_BYTES</code>
+	 */
+	public PathTreeCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * @param maxBytes The memory the trees may use, in bytes
+	 */
+	public PathTreeCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @param source The id of the departure
+	 * @param nodeMask The mask of the <code>NodeTypes</code> of the tree
+	 * @param linkMask The mask of the <code>LinkTypes</code> of the tree
+	 * @return Returns the cached tree, or <code>null</code> if it isn't cached
+	 */
+	public synchronized ShortestPathTree get(int source, int nodeMask, int linkMask) {
+		ShortestPathTree tree = trees.get(getKey(source, nodeMask, linkMask));
+		if (tree == null)
+			misses++;
+		else
+			hits++;
+		return tree;
+	}
+
+	/**
+	 * Caches a tree, removing the least recently used ones until the trees fit in the memory allowed
+	 * @param nodeMask The mask of the <code>NodeTypes</code> of the tree
+	 * @param linkMask The mask of the <code>LinkTypes</code> of the tree
+	 * @param tree The tree
+	 */
+	public synchronized void put(int nodeMask, int linkMask, ShortestPathTree tree) {
+		// a tree bigger than the whole cache isn't kept
+		if (tree.getSizeInBytes() > maxBytes)
+			return;
+
+		ShortestPathTree previous = trees.put(getKey(tree.getSource(), nodeMask, linkMask), tree);
+		if (previous != null)
+			bytes -= previous.getSizeInBytes();
+		bytes += tree.getSizeInBytes();
+
+		Iterator<ShortestPathTree> eldest = trees.values().iterator();
+		while (bytes > maxBytes) {
+			bytes -= eldest.next().getSizeInBytes();
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Removes all the trees, when the <code>Graph</code> they were computed on changes
+	 */
+	public synchronized void clear() {
+		trees.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @return Returns the number of cached trees
+	 */
+	public synchronized int size() {
+		return trees.size();
+	}
+
+	/**
+	 * @return Returns the estimated memory used by the cached trees, in bytes
+	 */
+	public synchronized long getSizeInBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return Returns the number of searches which found their tree
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return Returns the number of searches which didn't find their tree
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return Returns the number of trees removed to free memory
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return Returns the part of the searches which found their tree, between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double)hits / (hits + misses);
+	}
+
+	/**
+	 * @param source The id of the departure
+	 * @param nodeMask The mask of the <code>NodeTypes</code>
+	 * @param linkMask The mask of the <code>LinkTypes</code>
+	 * @return Returns the key of a tree, the masks fitting in 8 bits each
+	 */
+	private static long getKey(int source, int nodeMask, int linkMask) {
+		return ((long)source << 16) | ((nodeMask & 0xFF) << 8) | (linkMask & 0xFF);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d arbres (%d octets), %d succès, %d échecs, %d évictions", trees.size(), bytes, hits, misses, evictions);
+	}
+
+}
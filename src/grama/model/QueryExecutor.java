@@ -0,0 +1,207 @@
+package grama.model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class running the queries on a <code>Graph</code> from many callers at once, on a bounded number of threads
+ * <p>A query is admitted only if there are fewer queries running or waiting than the limit, otherwise it's rejected at once instead of piling up. Each query runs on the snapshot published when it was submitted, and the searches reuse the arrays of their thread</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class QueryExecutor implements AutoCloseable {
+
+	private final Graph graph;
+	private final ExecutorService workers;
+	private final Semaphore admissions;
+	private final int maxQueries;
+
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * A query run on one snapshot
+	 * @param <T> The type of the result
+	 */
+	@FunctionalInterface
+	public interface Query<T> {
+
+		/**
+		 * @param snapshot The snapshot pinned when the query was submitted
+		 * @return Returns the result of the query
+		 * @throws ItineraryException If the query has no result
+		 */
+		T run(GraphSnapshot snapshot) throws ItineraryException;
+
+	}
+
+	/**
+	 * Creates an executor with a thread per processor, admitting 64 queries per thread
+	 * @param graph The queried <code>Graph</code>
+	 */
+	public QueryExecutor(Graph graph) {
+		this(graph, Runtime.getRuntime().availableProcessors(), 64 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param graph The queried <code>Graph</code>
+	 * @param threads The number of threads running the queries
+	 * @param maxQueries The maximum number of queries running or waiting for a thread
+	 */
+	public QueryExecutor(Graph graph, int threads, int maxQueries) {
+		this.graph = graph;
+		this.maxQueries = maxQueries;
+		this.admissions = new Semaphore(maxQueries);
+		AtomicInteger count = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "grama-query-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Pins the current snapshot and schedules <code>query</code> on it
+	 * @param <T> The type of the result
+	 * @param query The query
+	 * @return Returns the future result, failed with a <code>RejectedExecutionException</code> if too many queries are running, or with the <code>ItineraryException</code> of the query
+	 */
+	public <T> CompletableFuture<T> submit(Query<T> query) {
+		return submit(graph.getSnapshot(), query);
+	}
+
+	/**
+	 * Schedules <code>query</code> on a snapshot already pinned, so the queries of a batch all see the same graph
+	 * @param <T> The type of the result
+	 * @param snapshot The snapshot the query runs on
+	 * @param query The query
+	 * @return Returns the future result, failed with a <code>RejectedExecutionException</code> if too many queries are running, or with the <code>ItineraryException</code> of the query
+	 */
+	public <T> CompletableFuture<T> submit(GraphSnapshot snapshot, Query<T> query) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		if (!admissions.tryAcquire()) {
+			rejected.incrementAndGet();
+			result.completeExceptionally(new RejectedExecutionException("Trop de requêtes en cours"));
+			return result;
+		}
+
+		try {
+			workers.execute(() -> {
+				try {
+					result.complete(query.run(snapshot));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				} finally {
+					completed.incrementAndGet();
+					admissions.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// the executor has been closed
+			admissions.release();
+			rejected.incrementAndGet();
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * @param departure The name of the starting node
+	 * @param arrival The name of the arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the future shortest path between the 2 places, searched in the workspace of the thread running it instead of the cache of the trees
+	 */
+	public CompletableFuture<List<Link>> itinerary(String departure, String arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		return submit(snapshot -> snapshot.searchShortestItinerary(getNode(snapshot, departure), getNode(snapshot, arrival), nodeTypes, linkTypes));
+	}
+
+	/**
+	 * @param departure The name of the starting node
+	 * @param arrival The name of the arrival node
+	 * @param nodeTypes The filter of the <code>Node</code> types we want
+	 * @param linkTypes The filter of the <code>Link</code> types we want
+	 * @return Returns the future length in kilometers of the shortest path between the 2 places
+	 */
+	public CompletableFuture<Integer> distance(String departure, String arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		return submit(snapshot -> snapshot.getShortestDistance(getNode(snapshot, departure), getNode(snapshot, arrival), nodeTypes, linkTypes));
+	}
+
+	/**
+	 * @param node The name of the starting node
+	 * @param jumps The maximum number of jumps
+	 * @param nodeTypes The filter of the <code>Node</code> types we want to get
+	 * @param linkTypes The filter of the <code>Link</code> types we go through
+	 * @return Returns the future <code>Nodes</code> at <code>jumps</code> jumps or less, the closest first
+	 */
+	public CompletableFuture<List<Node>> neighbors(String node, int jumps, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes) {
+		return submit(snapshot -> snapshot.getNeighbors(getNode(snapshot, node), jumps, nodeTypes, linkTypes));
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param name The name of the <code>Node</code>, the case and the accents being ignored
+	 * @return Returns the <code>Node</code> of <code>snapshot</code> with this name
+	 * @throws ItineraryException If there's no <code>Node</code> with this name
+	 */
+	private static Node getNode(GraphSnapshot snapshot, String name) throws ItineraryException {
+		Node node = snapshot.findNode(name);
+		if (node == null)
+			throw new ItineraryException("Le noeud " + name + " n'existe pas");
+		return node;
+	}
+
+	/**
+	 * @return Returns the maximum number of queries running or waiting for a thread
+	 */
+	public int getMaxQueries() {
+		return maxQueries;
+	}
+
+	/**
+	 * @return Returns the number of queries running or waiting for a thread
+	 */
+	public int getPending() {
+		return maxQueries - admissions.availablePermits();
+	}
+
+	/**
+	 * @return Returns the number of queries which have been run
+	 */
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * @return Returns the number of queries rejected because too many queries were running
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Stops accepting queries and waits a little for the running ones to end
+	 */
+	@Override
+	public void close() {
+		workers.shutdown();
+		try {
+			workers.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Requêtes : " + getPending() + " en cours, " + getCompleted() + " terminées, " + getRejected() + " rejetées";
+	}
+
+}
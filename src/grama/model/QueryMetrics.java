@@ -0,0 +1,163 @@
+package grama.model;
+
+import grama.metrics.Histogram;
+import grama.metrics.Metrics;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class recording what the queries of a <code>Graph</code> do into the counters and histograms of a <code>Metrics</code>
+ * <p>The searches count their work in their workspace, which is added to the counters once they're done. When the metrics are disabled nothing is measured, not even the time</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+final class QueryMetrics {
+
+	/**
+	 * The metrics recording nothing, used by default
+	 */
+	static final QueryMetrics DISABLED = new QueryMetrics();
+
+	/**
+	 * The kinds of queries, each one timed in its own histogram
+	 */
+	enum Kind {
+		ITINERARY("itinerary"),
+		DISTANCE("distance"),
+		NEIGHBORS("neighbors"),
+		OBJECTIVE("objective");
+
+		private final String name;
+
+		Kind(String name) {
+			this.name = name;
+		}
+	}
+
+	private final boolean enabled;
+
+	private final LongAdder searches;
+	private final LongAdder settled;
+	private final LongAdder relaxed;
+	private final LongAdder heapPushes;
+	private final LongAdder heapPops;
+	private final LongAdder treeHits;
+	private final LongAdder treeMisses;
+	private final LongAdder routeHits;
+	private final LongAdder routeMisses;
+	private final LongAdder solverIterations;
+
+	private final Histogram searchNanos;
+	private final Histogram settledBySearch;
+	private final Histogram filterNanos;
+	private final Histogram pathNanos;
+	private final Histogram solverNanos;
+	private final Histogram[] queryNanos = new Histogram[Kind.values().length];
+
+	private QueryMetrics() {
+		enabled = false;
+		searches = settled = relaxed = heapPushes = heapPops = null;
+		treeHits = treeMisses = routeHits = routeMisses = solverIterations = null;
+		searchNanos = settledBySearch = filterNanos = pathNanos = solverNanos = null;
+	}
+
+	/**
+	 * @param metrics The counters and histograms the queries are recorded into
+	 */
+	QueryMetrics(Metrics metrics) {
+		enabled = true;
+		searches = metrics.getCounter("search.count");
+		settled = metrics.getCounter("search.settled");
+		relaxed = metrics.getCounter("search.relaxed");
+		heapPushes = metrics.getCounter("search.heap.pushes");
+		heapPops = metrics.getCounter("search.heap.pops");
+		treeHits = metrics.getCounter("cache.trees.hits");
+		treeMisses = metrics.getCounter("cache.trees.misses");
+		routeHits = metrics.getCounter("cache.routes.hits");
+		routeMisses = metrics.getCounter("cache.routes.misses");
+		solverIterations = metrics.getCounter("solver.iterations");
+
+		searchNanos = metrics.getHistogram("search.nanos");
+		settledBySearch = metrics.getHistogram("search.settled");
+		filterNanos = metrics.getHistogram("filter.nanos");
+		pathNanos = metrics.getHistogram("path.nanos");
+		solverNanos = metrics.getHistogram("solver.iteration.nanos");
+		for (Kind kind: Kind.values())
+			queryNanos[kind.ordinal()] = metrics.getHistogram("query." + kind.name + ".nanos");
+	}
+
+	/**
+	 * @return Returns the current value of <code>System.nanoTime</code>, or 0 if the metrics are disabled
+	 */
+	long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a search once it's done, with the work counted in its workspace
+	 * @param start The value returned by <code>start()</code> before the search
+	 * @param workspace The workspace of the search
+	 */
+	void recordSearch(long start, SearchWorkspace workspace) {
+		if (!enabled)
+			return;
+		searchNanos.record(System.nanoTime() - start);
+		settledBySearch.record(workspace.settled);
+		searches.increment();
+		settled.add(workspace.settled);
+		relaxed.add(workspace.relaxed);
+		heapPushes.add(workspace.pushes);
+		heapPops.add(workspace.pops);
+	}
+
+	/**
+	 * @param start The value returned by <code>start()</code> before the filtering of the <code>Nodes</code>
+	 */
+	void recordFilter(long start) {
+		if (enabled)
+			filterNanos.record(System.nanoTime() - start);
+	}
+
+	/**
+	 * @param start The value returned by <code>start()</code> before the reconstruction of a path
+	 */
+	void recordPath(long start) {
+		if (enabled)
+			pathNanos.record(System.nanoTime() - start);
+	}
+
+	/**
+	 * @param start The value returned by <code>start()</code> before an iteration of the search of an itinerary with an objective
+	 */
+	void recordSolverIteration(long start) {
+		if (!enabled)
+			return;
+		solverNanos.record(System.nanoTime() - start);
+		solverIterations.increment();
+	}
+
+	/**
+	 * @param hit Equals to <code>true</code> if the tree of the shortest paths was in the cache
+	 */
+	void recordTreeCache(boolean hit) {
+		if (enabled)
+			(hit ? treeHits : treeMisses).increment();
+	}
+
+	/**
+	 * @param hit Equals to <code>true</code> if the itinerary with an objective was in the cache
+	 */
+	void recordRouteCache(boolean hit) {
+		if (enabled)
+			(hit ? routeHits : routeMisses).increment();
+	}
+
+	/**
+	 * @param kind The kind of the query
+	 * @param start The value returned by <code>start()</code> when the query started
+	 */
+	void recordQuery(Kind kind, long start) {
+		if (enabled)
+			queryNanos[kind.ordinal()].record(System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,197 @@
+package grama.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class representing a concurrent cache of the itineraries already computed, by query
+ * <p>The size of the cache is the total length of its paths: when it's too big, the least recently used itineraries are removed. An itinerary may also expire after a delay</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class RouteCache {
+
+	/**
+	 * The total length of the cached paths by default
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+
+	private final long maxWeight;
+	private final long timeToLive;
+
+	private final Map<RouteKey, Route> routes = new ConcurrentHashMap<>();
+	private final AtomicLong weight = new AtomicLong();
+	private final AtomicLong clock = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Creates a cache of <code>DEFAULT_MAX_WEIGHT</code> whose itineraries don't expire
+	 */
+	public RouteCache() {
+		this(DEFAULT_MAX_WEIGHT, 0);
+	}
+
+	/**
+	 * @param maxWeight The total length of the cached paths, each path counting at least for 1
+	 * @param timeToLive The delay after which an itinerary expires, in milliseconds, or 0 if they don't expire
+	 */
+	public RouteCache(long maxWeight, long timeToLive) {
+		this.maxWeight = maxWeight;
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * @param key The query
+	 * @return Returns a copy of the cached itinerary, or <code>null</code> if it isn't cached or has expired
+	 */
+	public List<Link> get(RouteKey key) {
+		Route route = routes.get(key);
+		if (route != null && route.isExpired()) {
+			remove(key, route);
+			route = null;
+		}
+		if (route == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		route.lastUse = clock.incrementAndGet();
+		return new ArrayList<>(route.path);
+	}
+
+	/**
+	 * Caches an itinerary, then removes the least recently used ones if the cache is too big
+	 * @param key The query
+	 * @param path The itinerary
+	 */
+	public void put(RouteKey key, List<Link> path) {
+		Route route = new Route(path);
+		if (route.weight > maxWeight)
+			return;
+
+		Route previous = routes.put(key, route);
+		if (previous != null)
+			weight.addAndGet(-previous.weight);
+		if (weight.addAndGet(route.weight) > maxWeight)
+			evict();
+	}
+
+	/**
+	 * Removes the least recently used itineraries until the cache is back to 90% of its size, so it isn't scanned at every insertion
+	 */
+	private synchronized void evict() {
+		if (weight.get() <= maxWeight)
+			return;
+
+		List<Map.Entry<RouteKey, Route>> entries = new ArrayList<>(routes.entrySet());
+		entries.sort((a, b) -> Long.compare(a.getValue().lastUse, b.getValue().lastUse));
+		for (int i = 0; i < entries.size() && weight.get() > maxWeight * 9 / 10; i++)
+			if (remove(entries.get(i).getKey(), entries.get(i).getValue()))
+				evictions.incrementAndGet();
+	}
+
+	/**
+	 * @param key The query
+	 * @param route The itinerary expected for this query
+	 * @return Returns <code>true</code> if the itinerary was still cached and has been removed
+	 */
+	private boolean remove(RouteKey key, Route route) {
+		if (!routes.remove(key, route))
+			return false;
+		weight.addAndGet(-route.weight);
+		return true;
+	}
+
+	/**
+	 * Removes all the itineraries, when the <code>Graph</code> they were computed on changes
+	 */
+	public void clear() {
+		for (Map.Entry<RouteKey, Route> entry: routes.entrySet())
+			remove(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * @return Returns the number of cached itineraries
+	 */
+	public int size() {
+		return routes.size();
+	}
+
+	/**
+	 * @return Returns the total length of the cached paths
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+
+	/**
+	 * @return Returns the number of queries which found their itinerary
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return Returns the number of queries which didn't find their itinerary
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return Returns the number of itineraries removed to free space
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return Returns the part of the queries which found their itinerary, between 0 and 1
+	 */
+	public double getHitRate() {
+		long total = hits.get() + misses.get();
+		return total == 0 ? 0 : (double)hits.get() / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d itinéraires (poids %d), %d succès, %d échecs, %d évictions", size(), getWeight(), getHits(), getMisses(), getEvictions());
+	}
+
+	/**
+	 * The cached itinerary of a query
+	 */
+	private final class Route {
+
+		private final List<Link> path;
+		private final long weight;
+		private final long expiration;
+		private volatile long lastUse;
+
+		/**
+		 * @param path The itinerary, copied
+		 */
+		private Route(List<Link> path) {
+			this.path = Collections.unmodifiableList(new ArrayList<>(path));
+			this.weight = Math.max(1, path.size());
+			this.expiration = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+			this.lastUse = clock.incrementAndGet();
+		}
+
+		/**
+		 * @return Returns <code>true</code> if the itinerary has expired
+		 */
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= expiration;
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+package grama.model;
+
+/**
+ * The class representing an itinerary query in a canonical form: the ids of the <code>Nodes</code>, the masks of the filters and the numbers of the objective
+ * <p>Two queries asking for the same itinerary have equal keys, whatever the order of the types in their filters</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class RouteKey {
+
+	private final int departure;
+	private final int arrival;
+	private final int nodeMask;
+	private final int linkMask;
+	private final int cities;
+	private final int restaurants;
+	private final int recreations;
+
+	/**
+	 * @param departure The id of the departure
+	 * @param arrival The id of the arrival
+	 * @param nodeTypes The filter of the <code>Node</code> types
+	 * @param linkTypes The filter of the <code>Link</code> types
+	 * @param objectif The number of <code>Nodes</code> of each type to go through
+	 */
+	public RouteKey(int departure, int arrival, TypeFilter<NodeType> nodeTypes, TypeFilter<LinkType> linkTypes, CounterNodeType objectif) {
+		this.departure = departure;
+		this.arrival = arrival;
+		this.nodeMask = nodeTypes.getMask();
+		this.linkMask = linkTypes.getMask();
+		this.cities = objectif.getNumber(NodeType.CITY);
+		this.restaurants = objectif.getNumber(NodeType.RESTAURANT);
+		this.recreations = objectif.getNumber(NodeType.RECREATION);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = departure;
+		hash = 31 * hash + arrival;
+		hash = 31 * hash + (nodeMask << 8 | linkMask);
+		hash = 31 * hash + cities;
+		hash = 31 * hash + restaurants;
+		return 31 * hash + recreations;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof RouteKey))
+			return false;
+		RouteKey k = (RouteKey)o;
+		return departure == k.departure && arrival == k.arrival && nodeMask == k.nodeMask && linkMask == k.linkMask
+			&& cities == k.cities && restaurants == k.restaurants && recreations == k.recreations;
+	}
+
+	@Override
+	public String toString() {
+		return departure + " -> " + arrival + " [" + nodeMask + ", " + linkMask + ", " + cities + ":" + restaurants + ":" + recreations + "]";
+	}
+
+}
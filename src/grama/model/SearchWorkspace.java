@@ -0,0 +1,124 @@
+package grama.model;
+
+import java.util.Arrays;
+
+/**
+ * The class representing the arrays of a search in an <code>Adjacency</code>, kept by a thread from one search to the next instead of being allocated each time
+ * <p>Each search has a new generation number, and a <code>Node</code> is reached by the current search only if its stamp is this number: starting a search doesn't have to clear anything</p>
+ * <p>A thread has a single workspace whatever the <code>Adjacency</code> it searches, grown to the largest one it has searched, so the workspaces of the graphs replaced by a reload aren't kept beside the new one</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+final class SearchWorkspace {
+
+	private static final ThreadLocal<SearchWorkspace> WORKSPACES = ThreadLocal.withInitial(() -> new SearchWorkspace(0));
+
+	private int[] stamps;
+	private int[] distances;
+	private int[] predecessors;
+	private int generation = 0;
+
+	// the queue of a breadth-first search, and the heap of a Dijkstra search
+	int[] queue;
+	final LongHeap heap = new LongHeap();
+
+	// the work of the current search, counted for the metrics
+	int settled;
+	int relaxed;
+	int pushes;
+	int pops;
+
+	/**
+	 * @param size The number of <code>Nodes</code>
+	 */
+	private SearchWorkspace(int size) {
+		allocate(size);
+	}
+
+	/**
+	 * @param size The number of <code>Nodes</code> of the <code>Adjacency</code> searched
+	 * @return Returns the workspace of the calling thread, with room for <code>size</code> <code>Nodes</code> at least
+	 */
+	static SearchWorkspace of(int size) {
+		SearchWorkspace workspace = WORKSPACES.get();
+		if (workspace.stamps.length < size)
+			workspace.allocate(size);
+		return workspace;
+	}
+
+	/**
+	 * Allocates the arrays for <code>size</code> <code>Nodes</code>, none of them being reached
+	 * @param size The number of <code>Nodes</code>
+	 */
+	private void allocate(int size) {
+		stamps = new int[size];
+		distances = new int[size];
+		predecessors = new int[size];
+		queue = new int[size];
+		generation = 0;
+	}
+
+	/**
+	 * Starts a new search, forgetting the <code>Nodes</code> reached by the previous one
+	 */
+	void start() {
+		if (++generation == Integer.MAX_VALUE) {
+			// the stamps of the first generations would look current again
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+		heap.clear();
+		settled = relaxed = pushes = pops = 0;
+	}
+
+	/**
+	 * Sets the work of the current search, counted by the search itself
+	 * @param settled The number of <code>Nodes</code> whose distance is final
+	 * @param relaxed The number of <code>Links</code> gone through
+	 * @param pushes The number of values added to the heap
+	 * @param pops The number of values removed from the heap
+	 */
+	void count(int settled, int relaxed, int pushes, int pops) {
+		this.settled = settled;
+		this.relaxed = relaxed;
+		this.pushes = pushes;
+		this.pops = pops;
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns <code>true</code> if the <code>Node</code> has been reached by the current search
+	 */
+	boolean isReached(int id) {
+		return stamps[id] == generation;
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns the distance found for the <code>Node</code> by the current search, <code>UNREACHABLE</code> if it hasn't been reached
+	 */
+	int getDistance(int id) {
+		return stamps[id] == generation ? distances[id] : ShortestPathTree.UNREACHABLE;
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code> reached by the current search
+	 * @return Returns the index of the last <code>Link</code> of the path found to the <code>Node</code>, -1 for the departure
+	 */
+	int getPredecessor(int id) {
+		return predecessors[id];
+	}
+
+	/**
+	 * Marks a <code>Node</code> as reached by the current search
+	 * @param id The id of the <code>Node</code>
+	 * @param distance Its new distance
+	 * @param predecessor The index of the last <code>Link</code> of the path found to it, -1 for the departure
+	 */
+	void reach(int id, int distance, int predecessor) {
+		stamps[id] = generation;
+		distances[id] = distance;
+		predecessors[id] = predecessor;
+	}
+
+}
@@ -0,0 +1,77 @@
+package grama.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class representing the shortest paths from one <code>Node</code> to all the others, as computed by the Dijkstra algorithm on an <code>Adjacency</code>
+ * <p>The path to any <code>Node</code> is rebuilt by going up the predecessors, in a time proportional to its length</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class ShortestPathTree {
+
+	/**
+	 * The distance of the <code>Nodes</code> which can't be reached
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final Adjacency adjacency;
+	private final int source;
+	private final int[] distances;
+	private final int[] predecessors;
+
+	/**
+	 * @param adjacency The compiled <code>Links</code> of the <code>Graph</code>
+	 * @param source The id of the departure
+	 * @param distances The distance of each <code>Node</code> from the departure, <code>UNREACHABLE</code> if there's no path
+	 * @param predecessors The index in <code>adjacency</code> of the last <code>Link</code> of the path to each <code>Node</code>, -1 for the departure and the <code>Nodes</code> which can't be reached
+	 */
+	ShortestPathTree(Adjacency adjacency, int source, int[] distances, int[] predecessors) {
+		this.adjacency = adjacency;
+		this.source = source;
+		this.distances = distances;
+		this.predecessors = predecessors;
+	}
+
+	/**
+	 * @return Returns the id of the departure
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * @param id The id of a <code>Node</code>
+	 * @return Returns the distance of the shortest path to the <code>Node</code>, or <code>UNREACHABLE</code> if there's none
+	 */
+	public int getDistance(int id) {
+		return distances[id];
+	}
+
+	/**
+	 * @param id The id of the arrival
+	 * @return Returns the <code>Links</code> of the shortest path from the departure to the arrival, empty if they're the same <code>Node</code>
+	 * @throws ItineraryException If the arrival can't be reached
+	 */
+	public List<Link> getPath(int id) throws ItineraryException {
+		if (distances[id] == UNREACHABLE)
+			throw new ItineraryException("Ce noeud est inaccessible !");
+
+		List<Link> path = new ArrayList<>();
+		for (int node = id; node != source; node = adjacency.getLink(predecessors[node]).getDeparture().getId())
+			path.add(adjacency.getLink(predecessors[node]));
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * @return Returns an estimation of the memory used by this tree, in bytes
+	 */
+	public long getSizeInBytes() {
+		// the two arrays with their headers, and the fields of this object
+		return 2L * (16 + 4L * distances.length) + 32;
+	}
+
+}
@@ -0,0 +1,166 @@
+package grama.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The class representing an immutable set of <code>NodeType</code> or <code>LinkType</code> constants as a bitmask, so testing a type is a single bitwise AND
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ * @param <E> The enum of the types
+ */
+public final class TypeFilter<E extends Enum<E>> {
+
+	private final Class<E> enumType;
+	private final int mask;
+
+	private TypeFilter(Class<E> enumType, int mask) {
+		this.enumType = enumType;
+		this.mask = mask;
+	}
+
+	/**
+	 * @param <E> The enum of the types
+	 * @param enumType The class of the enum
+	 * @return Returns a filter accepting all the types
+	 */
+	public static <E extends Enum<E>> TypeFilter<E> all(Class<E> enumType) {
+		return new TypeFilter<>(enumType, (1 << enumType.getEnumConstants().length) - 1);
+	}
+
+	/**
+	 * @param <E> The enum of the types
+	 * @param enumType The class of the enum
+	 * @return Returns a filter accepting no type
+	 */
+	public static <E extends Enum<E>> TypeFilter<E> none(Class<E> enumType) {
+		return new TypeFilter<>(enumType, 0);
+	}
+
+	/**
+	 * @param <E> The enum of the types
+	 * @param enumType The class of the enum
+	 * @param types The types accepted by the filter
+	 * @return Returns a filter accepting the types of <code>types</code>
+	 */
+	public static <E extends Enum<E>> TypeFilter<E> of(Class<E> enumType, Collection<E> types) {
+		int mask = 0;
+		for (E type: types)
+			mask |= 1 << type.ordinal();
+		return new TypeFilter<>(enumType, mask);
+	}
+
+	/**
+	 * @param types The <code>List</code> of <code>Node</code> types accepted by the filter
+	 * @return Returns a filter accepting the types of <code>types</code>
+	 */
+	public static TypeFilter<NodeType> ofNodes(Collection<NodeType> types) {
+		return of(NodeType.class, types);
+	}
+
+	/**
+	 * @param types The <code>List</code> of <code>Link</code> types accepted by the filter
+	 * @return Returns a filter accepting the types of <code>types</code>
+	 */
+	public static TypeFilter<LinkType> ofLinks(Collection<LinkType> types) {
+		return of(LinkType.class, types);
+	}
+
+	/**
+	 * @param codes The first letters of the <code>Node</code> types accepted, like <code>"VR"</code>, all the types if it's empty
+	 * @return Returns a filter accepting the types of <code>codes</code>
+	 * @throws IllegalArgumentException If a letter isn't the one of a <code>Node</code> type
+	 */
+	public static TypeFilter<NodeType> parseNodes(String codes) {
+		if (codes.isEmpty())
+			return all(NodeType.class);
+		TypeFilter<NodeType> filter = none(NodeType.class);
+		try {
+			for (char code: codes.toCharArray())
+				filter = filter.with(NodeType.typeOf(code));
+		} catch (LoadGraphException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		return filter;
+	}
+
+	/**
+	 * @param codes The first letters of the <code>Link</code> types accepted, like <code>"AN"</code>, all the types if it's empty
+	 * @return Returns a filter accepting the types of <code>codes</code>
+	 * @throws IllegalArgumentException If a letter isn't the one of a <code>Link</code> type
+	 */
+	public static TypeFilter<LinkType> parseLinks(String codes) {
+		if (codes.isEmpty())
+			return all(LinkType.class);
+		TypeFilter<LinkType> filter = none(LinkType.class);
+		try {
+			for (char code: codes.toCharArray())
+				filter = filter.with(LinkType.typeOf(code));
+		} catch (LoadGraphException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		return filter;
+	}
+
+	/**
+	 * @param type The type we test
+	 * @return Returns <code>true</code> if this filter accepts <code>type</code>
+	 */
+	public boolean accepts(E type) {
+		return (mask & (1 << type.ordinal())) != 0;
+	}
+
+	/**
+	 * @param type The type to add
+	 * @return Returns a filter accepting the types of this filter and <code>type</code>
+	 */
+	public TypeFilter<E> with(E type) {
+		return new TypeFilter<>(enumType, mask | (1 << type.ordinal()));
+	}
+
+	/**
+	 * @param type The type to remove
+	 * @return Returns a filter accepting the types of this filter except <code>type</code>
+	 */
+	public TypeFilter<E> without(E type) {
+		return new TypeFilter<>(enumType, mask & ~(1 << type.ordinal()));
+	}
+
+	/**
+	 * @return Returns the bitmask of the accepted types, the bit <code>i</code> standing for the type of ordinal <code>i</code>
+	 */
+	public int getMask() {
+		return mask;
+	}
+
+	/**
+	 * @return Returns the <code>List</code> of the accepted types in the order of the enum
+	 */
+	public List<E> toList() {
+		List<E> types = new ArrayList<>();
+		for (E type: enumType.getEnumConstants())
+			if (accepts(type))
+				types.add(type);
+		return types;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * enumType.hashCode() + mask;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof TypeFilter))
+			return false;
+		TypeFilter<?> f = (TypeFilter<?>)o;
+		return enumType == f.enumType && mask == f.mask;
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+}
@@ -0,0 +1,485 @@
+package grama.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import grama.model.CounterNodeType;
+import grama.model.Graph;
+import grama.model.GraphSnapshot;
+import grama.model.ItineraryException;
+import grama.model.Link;
+import grama.model.LinkType;
+import grama.model.LoadGraphException;
+import grama.model.Node;
+import grama.model.NodeType;
+import grama.model.QueryExecutor;
+import grama.model.ShortestPathTree;
+import grama.model.TypeFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class serving the queries on a <code>Graph</code> as JSON over HTTP, started from the command line with the file of the graph
+ * <p>The services, called with <code>GET</code> and their parameters in the query string, are :</p>
+ * <ul>
+ * <li><code>/itinerary?from=&amp;to=[&amp;nodes=VRL][&amp;links=AND][&amp;objective=cities:restaurants:recreations]</code> : the shortest itinerary</li>
+ * <li><code>/distances?from=&amp;from=&amp;to=&amp;to=[&amp;nodes=][&amp;links=]</code> : the table of the distances from every departure to every arrival</li>
+ * <li><code>/neighbors?node=[&amp;jumps=1][&amp;nodes=][&amp;links=]</code> : the <code>Nodes</code> at <code>jumps</code> jumps or less</li>
+ * <li><code>/counts[?node=&amp;jumps=1&amp;links=]</code> : the number of <code>Nodes</code> and <code>Links</code> of each type, of the graph or around a <code>Node</code></li>
+ * </ul>
+ * <p>A batch of queries is sent with <code>POST /batch/</code> followed by the name of the service, one query string per line, and its answers come back as a JSON array in the same order. The queries are run by a bounded <code>QueryExecutor</code>, a query which can't be admitted being answered with the status 503. A batch is admitted as a single query, its lines being answered one after the other on the same snapshot. Its body is limited to <code>MAX_BATCH_BYTES</code> bytes and <code>MAX_BATCH_LINES</code> queries, a larger batch being answered with the status 413, so the answers kept until the last line is done are bounded too</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class GraphServer {
+
+	/**
+	 * The port listened by default
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * The maximum size in bytes of the body of a batch
+	 */
+	public static final int MAX_BATCH_BYTES = 1 << 20;
+
+	/**
+	 * The maximum number of queries of a batch
+	 */
+	public static final int MAX_BATCH_LINES = 10_000;
+
+	private static final String BATCH = "/batch";
+
+	private final Graph graph;
+	private final QueryExecutor executor;
+	private final HttpServer server;
+	private final ExecutorService dispatchers;
+	private final Map<String, Service> services = new HashMap<>();
+
+	/**
+	 * A service answering a query on one snapshot
+	 */
+	@FunctionalInterface
+	private interface Service {
+
+		/**
+		 * @param snapshot The snapshot pinned for the query
+		 * @param parameters The parameters of the query
+		 * @return Returns the answer in JSON
+		 * @throws ItineraryException If the query has no answer
+		 */
+		String answer(GraphSnapshot snapshot, Parameters parameters) throws ItineraryException;
+
+	}
+
+	/**
+	 * @param graph The served <code>Graph</code>
+	 * @param port The port listened, 0 for any free port
+	 * @param threads The number of threads running the queries
+	 * @param maxQueries The maximum number of queries running or waiting, the next ones being rejected
+	 * @throws IOException If the port can't be listened
+	 */
+	public GraphServer(Graph graph, int port, int threads, int maxQueries) throws IOException {
+		this.graph = graph;
+		this.executor = new QueryExecutor(graph, threads, maxQueries);
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+
+		// the dispatchers only read the requests and hand them to the executor, the answers being sent by the thread of the query
+		AtomicInteger count = new AtomicInteger();
+		this.dispatchers = Executors.newFixedThreadPool(Math.max(2, threads / 2), runnable -> {
+			Thread thread = new Thread(runnable, "grama-http-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(dispatchers);
+		server.createContext("/", this::handle);
+
+		services.put("/itinerary", this::itinerary);
+		services.put("/distances", this::distances);
+		services.put("/neighbors", this::neighbors);
+		services.put("/counts", this::counts);
+	}
+
+	/**
+	 * Starts listening
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops listening, and waits a little for the running queries to end
+	 */
+	public void stop() {
+		server.stop(1);
+		executor.close();
+		dispatchers.shutdown();
+	}
+
+	/**
+	 * @return Returns the port listened
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return Returns the executor of the queries, with its statistics
+	 */
+	public QueryExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Dispatches a request to its service, or to the batch of a service
+	 * @param exchange The request and its response
+	 */
+	private void handle(HttpExchange exchange) {
+		String path = exchange.getRequestURI().getPath();
+		boolean batch = path.startsWith(BATCH + "/");
+		Service service = services.get(batch ? path.substring(BATCH.length()) : path);
+
+		if (service == null) {
+			send(exchange, 404, Json.error("Le service " + path + " n'existe pas"));
+		} else if (!exchange.getRequestMethod().equals(batch ? "POST" : "GET")) {
+			send(exchange, 405, Json.error("La méthode " + exchange.getRequestMethod() + " n'est pas acceptée par " + path));
+		} else if (batch) {
+			handleBatch(exchange, service);
+		} else {
+			// parsed by the query, so a badly encoded parameter is answered like any other error
+			String query = exchange.getRequestURI().getRawQuery();
+			executor.submit(snapshot -> service.answer(snapshot, Parameters.parse(query))).whenComplete((json, error) -> {
+				if (error == null)
+					send(exchange, 200, json);
+				else
+					send(exchange, getStatus(error), Json.error(getCause(error).getMessage()));
+			});
+		}
+	}
+
+	/**
+	 * Runs the queries of a batch on the same snapshot, and answers once they're all done
+	 * @param exchange The request, one query string per line, and its response
+	 * @param service The service of the queries
+	 */
+	private void handleBatch(HttpExchange exchange, Service service) {
+		String body;
+		try {
+			// one byte more than the limit is read to know if it's exceeded, the rest of the body being left unread
+			byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BATCH_BYTES + 1);
+			if (bytes.length > MAX_BATCH_BYTES) {
+				send(exchange, 413, Json.error("Le lot dépasse " + MAX_BATCH_BYTES + " octets"));
+				return;
+			}
+			body = new String(bytes, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			send(exchange, 400, Json.error(e.getMessage()));
+			return;
+		}
+
+		List<String> queries = new ArrayList<>();
+		for (String line: body.split("\r?\n"))
+			if (!line.isBlank())
+				queries.add(line.trim());
+		if (queries.size() > MAX_BATCH_LINES) {
+			send(exchange, 413, Json.error("Le lot dépasse " + MAX_BATCH_LINES + " requêtes"));
+			return;
+		}
+
+		// the batch is admitted once as a single query, so its lines don't take the places of the other clients nor reject each other
+		executor.submit(snapshot -> answerBatch(snapshot, service, queries)).whenComplete((json, error) -> {
+			if (error == null)
+				send(exchange, 200, json);
+			else
+				send(exchange, getStatus(error), Json.error(getCause(error).getMessage()));
+		});
+	}
+
+	/**
+	 * Answers the queries of a batch one after the other, on the thread running the batch
+	 * @param snapshot The snapshot pinned for the whole batch
+	 * @param service The service of the queries
+	 * @param queries The query strings
+	 * @return Returns the JSON array of the answers, a failed query being replaced by its error
+	 */
+	private static String answerBatch(GraphSnapshot snapshot, Service service, List<String> queries) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < queries.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			// parsed with its query, so a badly encoded line only fails its own answer
+			try {
+				json.append(service.answer(snapshot, Parameters.parse(queries.get(i))));
+			} catch (ItineraryException | RuntimeException e) {
+				json.append(Json.error(e.getMessage()));
+			}
+		}
+		return json.append(']').toString();
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param parameters <code>from</code>, <code>to</code>, and optionally <code>nodes</code>, <code>links</code> and <code>objective</code>
+	 * @return Returns the shortest itinerary, with its distance and its <code>Links</code>
+	 * @throws ItineraryException If the itinerary is not possible
+	 */
+	private String itinerary(GraphSnapshot snapshot, Parameters parameters) throws ItineraryException {
+		Node departure = getNode(snapshot, parameters.get("from"));
+		Node arrival = getNode(snapshot, parameters.get("to"));
+		TypeFilter<NodeType> nodeTypes = TypeFilter.parseNodes(parameters.get("nodes", ""));
+		TypeFilter<LinkType> linkTypes = TypeFilter.parseLinks(parameters.get("links", ""));
+		String objective = parameters.get("objective", "");
+
+		// the itineraries without objective are searched in the workspace of the thread, the trees of so many departures can't be cached
+		List<Link> path = objective.isEmpty()
+				? snapshot.searchShortestItinerary(departure, arrival, nodeTypes, linkTypes)
+				: snapshot.getShortestItinerary(departure, arrival, nodeTypes, linkTypes, CounterNodeType.parse(objective));
+
+		StringBuilder json = new StringBuilder("{\"departure\":");
+		Json.string(json, departure.getName());
+		Json.string(json.append(",\"arrival\":"), arrival.getName());
+		json.append(",\"distance\":").append(snapshot.getDistancePath(path)).append(",\"path\":");
+		return Json.path(json, path).append('}').toString();
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param parameters <code>from</code> and <code>to</code> once per departure and arrival, and optionally <code>nodes</code> and <code>links</code>
+	 * @return Returns the distances from every departure to every arrival, <code>null</code> when there's no path
+	 * @throws ItineraryException If a <code>Node</code> doesn't exist
+	 */
+	private String distances(GraphSnapshot snapshot, Parameters parameters) throws ItineraryException {
+		List<Node> departures = new ArrayList<>();
+		for (String name: parameters.getAll("from"))
+			departures.add(getNode(snapshot, name));
+		List<Node> arrivals = new ArrayList<>();
+		for (String name: parameters.getAll("to"))
+			arrivals.add(getNode(snapshot, name));
+		TypeFilter<NodeType> nodeTypes = TypeFilter.parseNodes(parameters.get("nodes", ""));
+		TypeFilter<LinkType> linkTypes = TypeFilter.parseLinks(parameters.get("links", ""));
+
+		StringBuilder json = new StringBuilder("{\"from\":[");
+		for (int i = 0; i < departures.size(); i++)
+			Json.string(i > 0 ? json.append(',') : json, departures.get(i).getName());
+		json.append("],\"to\":[");
+		for (int i = 0; i < arrivals.size(); i++)
+			Json.string(i > 0 ? json.append(',') : json, arrivals.get(i).getName());
+		json.append("],\"distances\":[");
+		// a tree per departure gives the distances to all the arrivals at once
+		for (int i = 0; i < departures.size(); i++) {
+			ShortestPathTree tree = snapshot.getShortestPathTree(departures.get(i), nodeTypes, linkTypes);
+			json.append(i > 0 ? ",[" : "[");
+			for (int j = 0; j < arrivals.size(); j++) {
+				int distance = tree.getDistance(arrivals.get(j).getId());
+				json.append(j > 0 ? "," : "").append(distance == ShortestPathTree.UNREACHABLE ? "null" : String.valueOf(distance));
+			}
+			json.append(']');
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param parameters <code>node</code>, and optionally <code>jumps</code>, <code>nodes</code> and <code>links</code>
+	 * @return Returns the <code>Nodes</code> at <code>jumps</code> jumps or less, the closest first
+	 * @throws ItineraryException If the <code>Node</code> doesn't exist
+	 */
+	private String neighbors(GraphSnapshot snapshot, Parameters parameters) throws ItineraryException {
+		Node node = getNode(snapshot, parameters.get("node"));
+		int jumps = parameters.getInt("jumps", 1);
+		TypeFilter<NodeType> nodeTypes = TypeFilter.parseNodes(parameters.get("nodes", ""));
+		TypeFilter<LinkType> linkTypes = TypeFilter.parseLinks(parameters.get("links", ""));
+
+		StringBuilder json = new StringBuilder("{\"node\":");
+		Json.node(json, node).append(",\"jumps\":").append(jumps).append(",\"neighbors\":[");
+		List<Node> neighbors = snapshot.getNeighbors(node, jumps, nodeTypes, linkTypes);
+		for (int i = 0; i < neighbors.size(); i++)
+			Json.node(i > 0 ? json.append(',') : json, neighbors.get(i));
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param parameters Nothing for the whole graph, or <code>node</code> and optionally <code>jumps</code> and <code>links</code>
+	 * @return Returns the number of <code>Nodes</code> and <code>Links</code> of each type of the graph, or the number of <code>Nodes</code> of each type at <code>jumps</code> jumps or less from <code>node</code>
+	 * @throws ItineraryException If the <code>Node</code> doesn't exist
+	 */
+	private String counts(GraphSnapshot snapshot, Parameters parameters) throws ItineraryException {
+		StringBuilder json = new StringBuilder("{");
+		if (parameters.has("node")) {
+			Node node = getNode(snapshot, parameters.get("node"));
+			int jumps = parameters.getInt("jumps", 1);
+			int[] counts = new int[NodeType.values().length];
+			for (Node neighbor: snapshot.getNeighbors(node, jumps, TypeFilter.all(NodeType.class), TypeFilter.parseLinks(parameters.get("links", ""))))
+				counts[neighbor.getType().ordinal()]++;
+
+			Json.node(json.append("\"node\":"), node).append(",\"jumps\":").append(jumps).append(",\"nodes\":{");
+			for (NodeType type: NodeType.values())
+				json.append(type.ordinal() > 0 ? ",\"" : "\"").append(type.getCharID()).append("\":").append(counts[type.ordinal()]);
+		} else {
+			json.append("\"nodes\":{");
+			for (NodeType type: NodeType.values())
+				json.append(type.ordinal() > 0 ? ",\"" : "\"").append(type.getCharID()).append("\":").append(snapshot.getNodes(type).size());
+			json.append("},\"links\":{");
+			for (LinkType type: LinkType.values())
+				json.append(type.ordinal() > 0 ? ",\"" : "\"").append(type.getCharID()).append("\":").append(snapshot.getDistinctLinks(type).size());
+		}
+		return json.append("}}").toString();
+	}
+
+	/**
+	 * @param snapshot The pinned snapshot
+	 * @param name The name of the <code>Node</code>, the case and the accents being ignored
+	 * @return Returns the <code>Node</code> of <code>snapshot</code> with this name
+	 * @throws ItineraryException If there's no <code>Node</code> with this name
+	 */
+	private static Node getNode(GraphSnapshot snapshot, String name) throws ItineraryException {
+		Node node = snapshot.findNode(name);
+		if (node == null)
+			throw new ItineraryException("Le noeud " + name + " n'existe pas");
+		return node;
+	}
+
+	/**
+	 * @param error The error of a query, maybe wrapped by its future
+	 * @return Returns the error thrown by the query
+	 */
+	private static Throwable getCause(Throwable error) {
+		return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+	}
+
+	/**
+	 * @param error The error of a query
+	 * @return Returns the HTTP status telling what went wrong
+	 */
+	private static int getStatus(Throwable error) {
+		Throwable cause = getCause(error);
+		if (cause instanceof RejectedExecutionException)
+			return 503;
+		if (cause instanceof ItineraryException)
+			return 404;
+		if (cause instanceof IllegalArgumentException)
+			return 400;
+		return 500;
+	}
+
+	/**
+	 * Sends the answer with its length, so the connection can be kept for the next request
+	 * @param exchange The request and its response
+	 * @param status The HTTP status
+	 * @param json The answer
+	 */
+	private static void send(HttpExchange exchange, int status, String json) {
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		try (OutputStream body = exchange.getResponseBody()) {
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			exchange.sendResponseHeaders(status, bytes.length);
+			body.write(bytes);
+		} catch (IOException e) {
+			// the client has left, there's no one to answer
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * The parameters of a query string, a parameter possibly given several times
+	 */
+	private static final class Parameters {
+
+		private final Map<String, List<String>> values = new HashMap<>();
+
+		/**
+		 * @param query The raw query string, or <code>null</code>
+		 * @return Returns the decoded parameters of <code>query</code>
+		 * @throws IllegalArgumentException If a parameter is badly encoded
+		 */
+		private static Parameters parse(String query) {
+			Parameters parameters = new Parameters();
+			if (query != null)
+				for (String pair: query.split("&")) {
+					if (pair.isEmpty())
+						continue;
+					int equal = pair.indexOf('=');
+					try {
+						String name = URLDecoder.decode(equal < 0 ? pair : pair.substring(0, equal), StandardCharsets.UTF_8);
+						String value = equal < 0 ? "" : URLDecoder.decode(pair.substring(equal + 1), StandardCharsets.UTF_8);
+						parameters.values.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+					} catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException("Le paramètre " + pair + " est mal encodé", e);
+					}
+				}
+			return parameters;
+		}
+
+		private boolean has(String name) {
+			return values.containsKey(name);
+		}
+
+		private String get(String name) {
+			if (!has(name))
+				throw new IllegalArgumentException("Le paramètre " + name + " est manquant");
+			return values.get(name).get(0);
+		}
+
+		private String get(String name, String byDefault) {
+			return has(name) ? values.get(name).get(0) : byDefault;
+		}
+
+		private List<String> getAll(String name) {
+			return values.getOrDefault(name, Collections.emptyList());
+		}
+
+		private int getInt(String name, int byDefault) {
+			try {
+				return has(name) ? Integer.parseInt(get(name)) : byDefault;
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Le paramètre " + name + " doit être un nombre entier");
+			}
+		}
+
+	}
+
+	/**
+	 * Loads a graph and serves it until the program is stopped
+	 * @param args The file of the graph, then optionally the port, the number of threads running the queries and the maximum number of queries waiting
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Utilisation : GraphServer fichier [port] [threads] [requêtes]");
+			System.exit(2);
+		}
+
+		try {
+			int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+			int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			int maxQueries = args.length > 3 ? Integer.parseInt(args[3]) : 64 * threads;
+
+			Graph graph = new Graph();
+			graph.load(args[0]);
+			GraphServer server = new GraphServer(graph, port, threads, maxQueries);
+			Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+			server.start();
+			System.out.println("Graphe " + args[0] + " servi sur le port " + server.getPort() + " (" + graph.getNumberNodes() + " noeuds, " + graph.getNumberLinks() + " liens)");
+		} catch (LoadGraphException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("Le serveur n'a pas pu démarrer : " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package grama.server;
+
+import grama.model.Link;
+import grama.model.Node;
+import java.util.List;
+
+/**
+ * The class writing the answers of the server in JSON, appending to a <code>StringBuilder</code> so an answer is built without intermediate strings
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+final class Json {
+
+	private Json() {}
+
+	/**
+	 * Appends <code>text</code> between quotes, escaping the characters JSON doesn't allow in a string
+	 * @param json The JSON being written
+	 * @param text The text
+	 * @return Returns <code>json</code>
+	 */
+	static StringBuilder string(StringBuilder json, String text) {
+		json.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+				case '"': json.append("\\\""); break;
+				case '\\': json.append("\\\\"); break;
+				case '\n': json.append("\\n"); break;
+				case '\r': json.append("\\r"); break;
+				case '\t': json.append("\\t"); break;
+				default:
+					if (c < 0x20)
+						json.append(String.format("\\u%04x", (int)c));
+					else
+						json.append(c);
+			}
+		}
+		return json.append('"');
+	}
+
+	/**
+	 * Appends a <code>Node</code> as an object with its name and the letter of its type
+	 * @param json The JSON being written
+	 * @param node The <code>Node</code>
+	 * @return Returns <code>json</code>
+	 */
+	static StringBuilder node(StringBuilder json, Node node) {
+		string(json.append("{\"name\":"), node.getName());
+		return string(json.append(",\"type\":"), String.valueOf(node.getType().getCharID())).append('}');
+	}
+
+	/**
+	 * Appends the <code>Links</code> of a path as an array of objects
+	 * @param json The JSON being written
+	 * @param path The <code>Links</code>
+	 * @return Returns <code>json</code>
+	 */
+	static StringBuilder path(StringBuilder json, List<Link> path) {
+		json.append('[');
+		for (int i = 0; i < path.size(); i++) {
+			Link link = path.get(i);
+			if (i > 0)
+				json.append(',');
+			string(json.append("{\"type\":"), String.valueOf(link.getType().getCharID()));
+			json.append(",\"distance\":").append(link.getDistance());
+			string(json.append(",\"departure\":"), link.getDeparture().getName());
+			string(json.append(",\"destination\":"), link.getDestination().getName()).append('}');
+		}
+		return json.append(']');
+	}
+
+	/**
+	 * @param message The message of the error
+	 * @return Returns an object with the message of the error
+	 */
+	static String error(String message) {
+		return string(new StringBuilder("{\"error\":"), String.valueOf(message)).append('}').toString();
+	}
+
+}
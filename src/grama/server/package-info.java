@@ -0,0 +1,4 @@
+/**
+ * The package containing the classes serving the queries on a graph over HTTP, without the graphical interface
+ */
+package grama.server;
\ No newline at end of file
@@ -6,11 +6,13 @@ import java.awt.event.ItemEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JOptionPane;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import swing.model.ComboModel;
+import swing.model.SortedItems;
 import grama.model.Graph;
 import grama.model.ItineraryException;
 import grama.model.Link;
@@ -18,13 +20,21 @@ import grama.model.LinkType;
 import grama.model.LoadGraphException;
 import grama.model.Node;
 import grama.model.NodeType;
-import java.awt.Image;
+import grama.model.TypeFilter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import javax.swing.ImageIcon;
 import javax.swing.JComboBox;
+import javax.swing.plaf.basic.ComboPopup;
 import javax.swing.JTabbedPane;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * The class representing the user interface
@@ -44,8 +54,16 @@ public class App extends javax.swing.JFrame {
 	
 	private final ComboModel<Link> linksModel = new ComboModel<>();
 	
-	private List<NodeType> nodesFilter = new ArrayList<>(List.of(NodeType.values()));
-	private List<LinkType> linksFilter = new ArrayList<>(List.of(LinkType.values()));
+	// the sorted rows of the graph, shared by the models
+	private SortedItems<Node> nodeItems = SortedItems.empty();
+	private SortedItems<Link> linkItems = SortedItems.empty();
+	
+	private static final int SUGGESTIONS = 8;
+	private final JPopupMenu suggestionsPopup = new JPopupMenu();
+	private boolean completing = false;
+	
+	private TypeFilter<NodeType> nodesFilter = TypeFilter.all(NodeType.class);
+	private TypeFilter<LinkType> linksFilter = TypeFilter.all(LinkType.class);
 	
 	/**
 	 * Creates new form App
@@ -53,9 +71,9 @@ public class App extends javax.swing.JFrame {
 	public App() {
 		initComponents();
 		
-		cityCounterLabel.setIcon(new ImageIcon(new ImageIcon("./src/grama/view/city.png").getImage().getScaledInstance(30,30,Image.SCALE_SMOOTH)));
-		recreationCounterLabel.setIcon(new ImageIcon(new ImageIcon("./src/grama/view/recreation.png").getImage().getScaledInstance(30,30,Image.SCALE_SMOOTH)));
-		restaurantCounterLabel.setIcon(new ImageIcon(new ImageIcon("./src/grama/view/restaurant.png").getImage().getScaledInstance(30,30,Image.SCALE_SMOOTH)));
+		cityCounterLabel.setIcon(new ImageIcon(NodeType.CITY.getIcon(30)));
+		recreationCounterLabel.setIcon(new ImageIcon(NodeType.RECREATION.getIcon(30)));
+		restaurantCounterLabel.setIcon(new ImageIcon(NodeType.RESTAURANT.getIcon(30)));
 		
 		highwayCounterLabel.setIcon(new ImageIcon("./src/grama/view/highway.png"));
 		departementalCounterLabel.setIcon(new ImageIcon("./src/grama/view/departmental.png"));
@@ -64,6 +82,38 @@ public class App extends javax.swing.JFrame {
 		canvas.setNodesType(nodesFilter);
 		canvas.setLinksType(linksFilter);
 		
+		// the overlay of the frame rate is only a tool to check the performance of the visualization, so it's not in the form
+		JCheckBoxMenuItem statsMenuItem = new JCheckBoxMenuItem("Performances de l'affichage");
+		statsMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0));
+		statsMenuItem.addItemListener(evt -> canvas.setStatsVisible(evt.getStateChange() == ItemEvent.SELECTED));
+		optionsMenu.addSeparator();
+		optionsMenu.add(statsMenuItem);
+		
+		departureItineraryComboBox.setKeySelectionManager(firstNodeListModel.createKeySelectionManager());
+		destinationItineraryComboBox.setKeySelectionManager(secondNodeListModel.createKeySelectionManager());
+		comparisonSelectorFirstCityComboBox.setKeySelectionManager(firstCityListModel.createKeySelectionManager());
+		comparisonSelectorSecondCityComboBox.setKeySelectionManager(secondCityListModel.createKeySelectionManager());
+		linksComboBox.setKeySelectionManager(linksModel.createKeySelectionManager());
+		
+		// the popup mustn't take the focus from the search field while typing
+		suggestionsPopup.setFocusable(false);
+		placeNameField.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				if (!completing)
+					updateSuggestions();
+			}
+			
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				if (!completing)
+					updateSuggestions();
+			}
+			
+			@Override
+			public void changedUpdate(DocumentEvent e) {}
+		});
+		
 		canvas.addMouseListener(new MouseAdapter() {
 			@Override
 			public void mouseReleased(MouseEvent e) {
@@ -889,6 +939,7 @@ public class App extends javax.swing.JFrame {
 	 * Initializes the graph visualization
 	 */
 	private void initGraphUI(){
+		canvas.resetView();
 		canvas.initNodes(graph.getNodes());
 		canvas.setDisplay(graph.getNodes(), graph.getDistinctLinks());
 	}
@@ -979,11 +1030,47 @@ public class App extends javax.swing.JFrame {
 		if (node == null) {
 			placeCategoryField.setText("");
 		} else {
+			completing = true;
 			placeNameField.setText(node.getName());
+			completing = false;
 			placeCategoryField.setText(node.getType().toString());
 		}
 	}
 	
+	/**
+	 * Displays the <code>Nodes</code> matching the text of the search field under it, once the text has been changed
+	 */
+	private void updateSuggestions() {
+		SwingUtilities.invokeLater(() -> {
+			suggestionsPopup.setVisible(false);
+			suggestionsPopup.removeAll();
+			
+			String text = placeNameField.getText();
+			if (!placeNameField.isEditable() || !placeNameField.hasFocus() || text.isBlank())
+				return;
+			
+			for (Node node: graph.searchNodes(text, SUGGESTIONS)) {
+				JMenuItem item = new JMenuItem(node.getName(), new ImageIcon(node.getType().getIcon(16)));
+				item.addActionListener(evt -> searchNode(node));
+				suggestionsPopup.add(item);
+			}
+			if (suggestionsPopup.getComponentCount() > 0)
+				suggestionsPopup.show(placeNameField, 0, placeNameField.getHeight());
+		});
+	}
+	
+	/**
+	 * Selects and displays the searched <code>Node</code>
+	 * @param node The <code>Node</code> found, may be <code>null</code>
+	 */
+	private void searchNode(Node node) {
+		suggestionsPopup.setVisible(false);
+		canvas.addSelected(0, node);
+		displayNode(node);
+		jumpNumberSpinner.setValue(0);
+		jumpNumberSlider.setValue(0);
+	}
+	
 	/**
 	 * Displays the <code>Node</code> in the Route <code>JPanel</code>
 	 * @param link The link we'll display on the UI
@@ -1007,7 +1094,7 @@ public class App extends javax.swing.JFrame {
 	 * Displays the neighbors of the displayed <code>Node</code>
 	 */
 	private void displayNeighbors() {
-		Node researchedNode = graph.getNode(placeNameField.getText());
+		Node researchedNode = graph.findNode(placeNameField.getText());
 		int nbNeighbors = jumpNumberSlider.getValue();
 		
 		if (researchedNode != null && nbNeighbors >= 0) {
@@ -1040,18 +1127,15 @@ public class App extends javax.swing.JFrame {
 	 * @param type 
 	 */
 	private void filterElements(ItemEvent evt, LinkType type) {
-		if (evt.getStateChange() == ItemEvent.SELECTED) {
-			if (!linksFilter.contains(type))
-				linksFilter.add(type);
-		} else {
-			linksFilter.remove(type);
-		}
+		if (evt.getStateChange() == ItemEvent.SELECTED)
+			linksFilter = linksFilter.with(type);
+		else
+			linksFilter = linksFilter.without(type);
+		canvas.setLinksType(linksFilter);
 		
-		List<Link> links = new ArrayList<>();
-		for (LinkType item: linksFilter)
-			links.addAll(graph.getDistinctLinks(item));
+		TypeFilter<LinkType> filter = linksFilter;
 		linksModel.setSelectedItem(null);
-		linksModel.addAll(links);
+		linksModel.setItems(linkItems.filter(link -> filter.accepts(link.getType())));
 		
 		twoDistanceVerification();
 		canvas.setDisplay(graph.getNodes(), graph.getDistinctLinks());
@@ -1066,12 +1150,11 @@ public class App extends javax.swing.JFrame {
 	private void filterElements(ItemEvent evt, NodeType type) {
 		boolean isSelected = evt.getStateChange() == ItemEvent.SELECTED;
 		if (isSelected) {
-			if (!nodesFilter.contains(type))
-				nodesFilter.add(type);
+			nodesFilter = nodesFilter.with(type);
 		} else {
-			nodesFilter.remove(type);
+			nodesFilter = nodesFilter.without(type);
 			
-			Node researchedNode = graph.getNode(placeNameField.getText());
+			Node researchedNode = graph.findNode(placeNameField.getText());
 			if (researchedNode != null && researchedNode.getType() == type) {
 				placeNameField.setText("");
 				placeCategoryField.setText("");
@@ -1086,10 +1169,13 @@ public class App extends javax.swing.JFrame {
 				canvas.addSelected(1, null);
 		}
 		
-		List<Node> nodes = graph.getNodes(nodesFilter);
+		canvas.setNodesType(nodesFilter);
+		
+		TypeFilter<NodeType> filter = nodesFilter;
+		SortedItems<Node> nodes = nodeItems.filter(node -> filter.accepts(node.getType()));
 		Node selectedNode = (Node)firstNodeListModel.getSelectedItem();
-		firstNodeListModel.addAll(nodes);
-		if (selectedNode != null && nodesFilter.contains((selectedNode.getType())))
+		firstNodeListModel.setItems(nodes);
+		if (selectedNode != null && nodesFilter.accepts(selectedNode.getType()))
 			firstNodeListModel.setSelectedItem(selectedNode);
 		else {
 			firstNodeListModel.setSelectedItem(null);
@@ -1097,8 +1183,8 @@ public class App extends javax.swing.JFrame {
 		}
 		
 		selectedNode = (Node)secondNodeListModel.getSelectedItem();
-		secondNodeListModel.addAll(nodes);
-		if (selectedNode != null && nodesFilter.contains((selectedNode.getType())))
+		secondNodeListModel.setItems(nodes);
+		if (selectedNode != null && nodesFilter.accepts(selectedNode.getType()))
 			secondNodeListModel.setSelectedItem(selectedNode);
 		else
 			secondNodeListModel.setSelectedItem(null);
@@ -1155,17 +1241,26 @@ public class App extends javax.swing.JFrame {
 			String fileName = graphFileChooser.getSelectedFile().getAbsolutePath();
 			try {
 				graph.load(fileName);
+				CompletableFuture.runAsync(graph::computeTwoJumpsCounters);
 				
-				List<Node> cityNodes = graph.getNodes(NodeType.CITY);
-				firstCityListModel.addAll(cityNodes);
-				secondCityListModel.addAll(cityNodes);
-				List<Node> nodes = graph.getNodes();
-				firstNodeListModel.addAll(nodes);
-				secondNodeListModel.addAll(nodes);
+				// sorted once, the models share the same rows
+				nodeItems = new SortedItems<>(graph.getNodes());
+				linkItems = new SortedItems<>(graph.getDistinctLinks());
+				SortedItems<Node> cityItems = nodeItems.filter(node -> node.getType() == NodeType.CITY);
 				
-				linksModel.addAll(graph.getDistinctLinks());
+				firstCityListModel.setItems(cityItems);
+				secondCityListModel.setItems(cityItems);
+				firstNodeListModel.setItems(nodeItems);
+				secondNodeListModel.setItems(nodeItems);
+				linksModel.setItems(linkItems);
 				
-				int nbNodes = nodes.size() - 1;
+				setPrototype(comparisonSelectorFirstCityComboBox, getLongest(cityItems));
+				setPrototype(comparisonSelectorSecondCityComboBox, getLongest(cityItems));
+				setPrototype(departureItineraryComboBox, getLongest(nodeItems));
+				setPrototype(destinationItineraryComboBox, getLongest(nodeItems));
+				setPrototype(linksComboBox, getLongest(linkItems));
+				
+				int nbNodes = nodeItems.size() - 1;
 				resetValueSpinner();
 				jumpNumberSlider.setMaximum(nbNodes);
 				((SpinnerNumberModel)jumpNumberSpinner.getModel()).setMaximum(nbNodes);
@@ -1183,6 +1278,37 @@ public class App extends javax.swing.JFrame {
 		}
     }//GEN-LAST:event_graphOpening
 	
+	/**
+	 * @param <E> The type of the rows
+	 * @param items The rows
+	 * @return Returns the row with the longest text, or <code>null</code> if there's no row
+	 */
+	private static <E extends Comparable<? super E>> E getLongest(SortedItems<E> items) {
+		E longest = null;
+		int length = -1;
+		for (E item: items.toList()) {
+			int itemLength = item.toString().length();
+			if (itemLength > length) {
+				longest = item;
+				length = itemLength;
+			}
+		}
+		return longest;
+	}
+	
+	/**
+	 * Sizes the ComboBox and its popup list from one row, so Swing doesn't measure every row to lay them out
+	 * @param <E> The type of the rows
+	 * @param comboBox The ComboBox
+	 * @param prototype The row used to compute the size of all the rows
+	 */
+	private static <E> void setPrototype(JComboBox<E> comboBox, E prototype) {
+		comboBox.setPrototypeDisplayValue(prototype);
+		Object popup = comboBox.getUI().getAccessibleChild(comboBox, 0);
+		if (popup instanceof ComboPopup)
+			((ComboPopup)popup).getList().setPrototypeCellValue(prototype);
+	}
+	
 	/**
 	 * Closes the opened graph if there's one
 	 */
@@ -1197,6 +1323,8 @@ public class App extends javax.swing.JFrame {
 		firstNodeListModel.reset();
 		secondNodeListModel.reset();
 		linksModel.reset();
+		nodeItems = SortedItems.empty();
+		linkItems = SortedItems.empty();
 		
 		resetValueSpinner();
 		jumpNumberSlider.setMaximum(0);
@@ -1269,11 +1397,13 @@ public class App extends javax.swing.JFrame {
     }//GEN-LAST:event_submitItinerary
 
     private void nodeSearchbar(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_nodeSearchbar
-		Node search = graph.getNode(placeNameField.getText());
-		canvas.addSelected(0, search);
-		displayNode(search);
-		jumpNumberSpinner.setValue(0);
-		jumpNumberSlider.setValue(0);
+		Node search = graph.findNode(placeNameField.getText());
+		if (search == null) {
+			List<Node> suggestions = graph.searchNodes(placeNameField.getText(), 1);
+			if (!suggestions.isEmpty())
+				search = suggestions.get(0);
+		}
+		searchNode(search);
     }//GEN-LAST:event_nodeSearchbar
 
     private void submitNeighbors(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_submitNeighbors
@@ -1357,7 +1487,7 @@ public class App extends javax.swing.JFrame {
 		int tabIndex = ((JTabbedPane)evt.getSource()).getSelectedIndex();
 		switch (tabIndex) {
 			case 0:
-				Node researchedNode = graph.getNode(placeNameField.getText());
+				Node researchedNode = graph.findNode(placeNameField.getText());
 				canvas.addSelected(0, researchedNode);
 				canvas.addSelected(1, null);
 				break;
@@ -1391,7 +1521,7 @@ public class App extends javax.swing.JFrame {
 		twoDistanceLabel.setText("");
 
 		if (departureItineraryComboBox.getSelectedItem() != null && destinationItineraryComboBox.getSelectedItem() != null){
-			if (((Node)departureItineraryComboBox.getSelectedItem()).isTwoDistance((Node)destinationItineraryComboBox.getSelectedItem(), nodesFilter, linksFilter)){
+			if (graph.isTwoDistance((Node)departureItineraryComboBox.getSelectedItem(), (Node)destinationItineraryComboBox.getSelectedItem(), nodesFilter, linksFilter)){
 				twoDistanceLabel.setText("Ces noeuds sont à 2-distance.");
 			}
 		}
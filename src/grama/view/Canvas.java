@@ -2,20 +2,25 @@ package grama.view;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import javax.swing.JPanel;
 import grama.model.Link;
 import grama.model.LinkType;
 import grama.model.Node;
 import grama.model.NodeType;
-import java.awt.BasicStroke;
+import grama.model.TypeFilter;
 
 /**
  * The class of the JPanel we will use to do the graph visualization
@@ -30,18 +35,58 @@ public class Canvas extends JPanel {
 	private List<Node> nodesList = new ArrayList<>();
 	
 	private List<Node> nodesDisplay = new ArrayList<>();
-	private List<NodeType> nodesType = new ArrayList<>();
+	private TypeFilter<NodeType> nodesType = TypeFilter.none(NodeType.class);
 	
 	private List<Link> linksDisplay = new ArrayList<>();
-	private List<LinkType> linksType = new ArrayList<>();
+	private TypeFilter<LinkType> linksType = TypeFilter.none(LinkType.class);
 	
-	private HashMap<String, Point> positions = new HashMap<>();
+	static final Font PLAIN_FONT = new Font("sans serif", Font.PLAIN, 12);
+	static final Font BOLD_FONT = new Font("sans serif", Font.BOLD, 12);
+	static final Color NODE_BACKGROUND = new Color(248, 244, 244);
+	
+	private FontMetrics plainMetrics;
+	private FontMetrics boldMetrics;
+	
+	// the screen coordinates and the label widths of the Nodes indexed by their id
+	private int[] screenX = new int[0];
+	private int[] screenY = new int[0];
+	private int[] nameWidths = new int[0];
+	private boolean[] displayed = new boolean[0];
+	private boolean layoutValid = false;
+	private int layoutWidth = 0;
+	private int layoutHeight = 0;
+	
+	// the distance labels and their widths indexed by distance
+	private String[] distanceLabels = new String[0];
+	private int[] distanceWidths = new int[0];
+	private int[] boldDistanceWidths = new int[0];
 	
 	private Object hover = null;
 	private Node[] selected = new Node[2];
 	
+	// the number of visible Links above which their distances are too close to be read
+	private static final int MAX_LABELS = 1000;
+	private static final int LABEL_MARGIN = 50;
+	
+	private static final double MAX_ZOOM = 1 << TileCache.MAX_LEVEL;
+	private static final double ZOOM_STEP = 1.25;
+	
+	private double zoom = 1;
+	private double panX = 0;
+	private double panY = 0;
+	private Point dragOrigin = null;
+	
+	private final RenderStats stats = new RenderStats();
+	private boolean statsVisible = false;
+	
+	private final TileCache tileCache = new TileCache(128, this::repaint, stats);
+	private TileCache.Scene scene = null;
+	// the replaced scene of the same size, whose tiles are shown until the ones of the new scene are rendered
+	private TileCache.Scene previousScene = null;
+	private boolean sceneValid = false;
+	
 	public Canvas() {
-		addMouseMotionListener(new MouseAdapter() {
+		MouseAdapter mouseAdapter = new MouseAdapter() {
 			@Override
 			public void mouseMoved(MouseEvent e) {
 				Object PreviousHover = hover;
@@ -54,7 +99,35 @@ public class Canvas extends JPanel {
 					repaint();
 				}
 			}
-		});
+			
+			@Override
+			public void mousePressed(MouseEvent e) {
+				dragOrigin = e.getPoint();
+			}
+			
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				if (dragOrigin != null) {
+					// a drag is not a click, the released element must not be selected
+					hover = null;
+					pan(e.getX() - dragOrigin.x, e.getY() - dragOrigin.y);
+					dragOrigin = e.getPoint();
+				}
+			}
+			
+			@Override
+			public void mouseReleased(MouseEvent e) {
+				dragOrigin = null;
+			}
+			
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				zoom(e.getPoint(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+			}
+		};
+		addMouseListener(mouseAdapter);
+		addMouseMotionListener(mouseAdapter);
+		addMouseWheelListener(mouseAdapter);
 	}
 	
 	/**
@@ -63,49 +136,205 @@ public class Canvas extends JPanel {
 	 */
 	@Override
 	public void paint(Graphics g){
+		long start = System.nanoTime();
 		graphic = (Graphics2D)g;
 		super.paint(graphic);
 		
-		setNodesLocation();
+		if (!layoutValid || layoutWidth != getWidth() || layoutHeight != getHeight())
+			setNodesLocation();
+		drawTiles();
+		long time = stats.record(RenderStats.Phase.TILES, start);
+		
+		drawLabels();
+		time = stats.record(RenderStats.Phase.LABELS, time);
+		
+		// the other Nodes are drawn by the tiles
+		for (Node node: selected)
+			drawOverlayNode(node);
+		if (hover instanceof Node && !isSelected((Node)hover))
+			drawOverlayNode((Node)hover);
+		stats.recordFrame(start, stats.record(RenderStats.Phase.NODES, time));
+		
+		if (statsVisible)
+			drawStats();
+	}
+	
+	/**
+	 * Draws the frame rate and the paint time of the last second in the top left corner
+	 */
+	private void drawStats() {
+		String text = String.format(Locale.ROOT, "%d images/s - %.2f ms", stats.getFrameRate(), stats.getPaintMillis());
+		graphic.setFont(PLAIN_FONT);
+		graphic.setColor(NODE_BACKGROUND);
+		graphic.fillRect(5, 5, getPlainMetrics().stringWidth(text) + 10, 20);
+		graphic.setColor(Color.BLACK);
+		graphic.drawString(text, 10, 20);
+	}
+	
+	/**
+	 * Draws a hovered or selected <code>Node</code> over the tiles if it is displayed
+	 * @param node The <code>Node</code> we'll draw, may be <code>null</code>
+	 */
+	private void drawOverlayNode(Node node) {
+		if (node == null || node.getId() < 0 || node.getId() >= displayed.length || !displayed[node.getId()])
+			return;
+		
+		int id = node.getId();
+		if (nodesType.accepts(node.getType()) && isVisible(screenX[id], screenY[id]))
+			drawNode(node);
+	}
+	
+	/**
+	 * Draws the pre-rendered tiles covering the visible area, the missing ones being replaced by a coarser zoom level or by the previous scene until they are rendered
+	 */
+	private void drawTiles() {
+		if (!sceneValid || scene.getWidth() != getWidth() || scene.getHeight() != getHeight()) {
+			// the old tiles aren't dropped, they are evicted by the new ones once they are rendered
+			previousScene = scene != null && scene.getWidth() == getWidth() && scene.getHeight() == getHeight() ? scene : null;
+			scene = new TileCache.Scene(linksDisplay, linksType, nodesDisplay, nodesType, nameWidths, getWidth(), getHeight(), scene);
+			sceneValid = true;
+		}
+		
+		int level = getTileLevel();
+		double span = TileCache.TILE_SIZE * zoom / (1 << level);
+		int columns = (int)Math.ceil(getWidth() * (double)(1 << level) / TileCache.TILE_SIZE);
+		int rows = (int)Math.ceil(getHeight() * (double)(1 << level) / TileCache.TILE_SIZE);
+		
+		int firstColumn = Math.max(0, (int)Math.floor(-panX / span));
+		int lastColumn = Math.min(columns - 1, (int)Math.floor((getWidth() - panX) / span));
+		int firstRow = Math.max(0, (int)Math.floor(-panY / span));
+		int lastRow = Math.min(rows - 1, (int)Math.floor((getHeight() - panY) / span));
+		tileCache.retain(scene, level, firstColumn, lastColumn, firstRow, lastRow);
 		
-		for (Link link: linksDisplay) {
-			if (linksType.contains(link.getType()))
-				drawLink(link);
+		for (int x = firstColumn; x <= lastColumn; x++) {
+			for (int y = firstRow; y <= lastRow; y++) {
+				int dx1 = (int)Math.floor(panX + x * span);
+				int dy1 = (int)Math.floor(panY + y * span);
+				int dx2 = (int)Math.floor(panX + (x + 1) * span);
+				int dy2 = (int)Math.floor(panY + (y + 1) * span);
+				
+				BufferedImage tile = tileCache.getTile(scene, level, x, y);
+				if (tile != null)
+					graphic.drawImage(tile, dx1, dy1, dx2, dy2, 0, 0, TileCache.TILE_SIZE, TileCache.TILE_SIZE, null);
+				else if (!drawPlaceholder(scene, level - 1, level, x, y, dx1, dy1, dx2, dy2) && previousScene != null)
+					drawPlaceholder(previousScene, level, level, x, y, dx1, dy1, dx2, dy2);
+			}
 		}
+	}
+	
+	/**
+	 * Draws the part of an already rendered tile covering the same area as a missing tile
+	 * @param from The scene of the tile drawn instead
+	 * @param finest The finest zoom level looked for, the coarser ones being tried after it
+	 * @param level The zoom level of the missing tile
+	 * @param x The column of the missing tile
+	 * @param y The row of the missing tile
+	 * @param dx1 The left of the missing tile in the visualization
+	 * @param dy1 The top of the missing tile in the visualization
+	 * @param dx2 The right of the missing tile in the visualization
+	 * @param dy2 The bottom of the missing tile in the visualization
+	 * @return Returns <code>true</code> if a tile was found
+	 */
+	private boolean drawPlaceholder(TileCache.Scene from, int finest, int level, int x, int y, int dx1, int dy1, int dx2, int dy2) {
+		for (int coarser = finest; coarser >= 0; coarser--) {
+			int shift = level - coarser;
+			BufferedImage tile = tileCache.peekTile(from, coarser, x >> shift, y >> shift);
+			if (tile != null) {
+				int size = TileCache.TILE_SIZE >> shift;
+				int sx = (x & ((1 << shift) - 1)) * size;
+				int sy = (y & ((1 << shift) - 1)) * size;
+				graphic.drawImage(tile, dx1, dy1, dx2, dy2, sx, sy, sx + size, sy + size, null);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Draws the distances of the <code>Links</code> whose middle is in the visible cells of the grid of the scene, unless too many of them are visible to be read at the current zoom
+	 */
+	private void drawLabels() {
+		double scaleX = zoom * getWidth();
+		double scaleY = zoom * getHeight();
+		int firstColumn = Math.max(0, (int)Math.floor((-LABEL_MARGIN - panX) * LinkBatches.GRID / scaleX));
+		int lastColumn = Math.min(LinkBatches.GRID - 1, (int)Math.floor((getWidth() + LABEL_MARGIN - panX) * LinkBatches.GRID / scaleX));
+		int firstRow = Math.max(0, (int)Math.floor((-LABEL_MARGIN - panY) * LinkBatches.GRID / scaleY));
+		int lastRow = Math.min(LinkBatches.GRID - 1, (int)Math.floor((getHeight() + LABEL_MARGIN - panY) * LinkBatches.GRID / scaleY));
 		
-		for (Node node: nodesDisplay) {
-			if (nodesType.contains(node.getType()))
-				drawNode(node);
+		// the distances are only drawn if few enough are visible, the count stopping as soon as there are too many
+		LinkBatches batches = scene.getBatches();
+		int count = 0;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				for (Link link: batches.getLinks(row * LinkBatches.GRID + column)) {
+					if (linksType.accepts(link.getType()) && isLabelVisible(link) && ++count > MAX_LABELS)
+						return;
+				}
+			}
 		}
+		
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				for (Link link: batches.getLinks(row * LinkBatches.GRID + column)) {
+					if (linksType.accepts(link.getType()))
+						drawLink(link);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param link A <code>Link</code> of the visualization
+	 * @return Returns <code>true</code> if the middle of the <code>Link</code>, where its distance is written, is close enough to the visible area
+	 */
+	private boolean isLabelVisible(Link link) {
+		int departure = link.getDeparture().getId();
+		int destination = link.getDestination().getId();
+		return isVisible((screenX[departure] + screenX[destination])/2, (screenY[departure] + screenY[destination])/2);
+	}
+	
+	/**
+	 * @return Returns the zoom level of the tiles matching the best the current zoom
+	 */
+	private int getTileLevel() {
+		int level = (int)Math.round(Math.log(zoom) / Math.log(2));
+		return Math.max(0, Math.min(TileCache.MAX_LEVEL, level));
+	}
+	
+	/**
+	 * @param x The horizontal coordinate of a point of the visualization
+	 * @param y The vertical coordinate of a point of the visualization
+	 * @return Returns <code>true</code> if the point is close enough to the visible area to be drawn
+	 */
+	private boolean isVisible(int x, int y) {
+		return x > -LABEL_MARGIN && y > -LABEL_MARGIN && x < getWidth() + LABEL_MARGIN && y < getHeight() + LABEL_MARGIN;
 	}
 	
 	/**
-	 * The method used to draw a single <code>Link</code>
+	 * The method used to draw the distance of a single <code>Link</code>, its line being drawn by the tiles
 	 * @param link The <code>Link</code> we'll draw
 	 */
 	public void drawLink(Link link) {		
-		Point coords = positions.get(link.getDeparture().getName());
-
-		Point destination = positions.get(link.getDestination().getName());
-
-		graphic.setColor(link.getType().getColor());
-		graphic.setStroke(link.getType().getStroke());
-
-		graphic.drawLine(coords.x, coords.y, destination.x, destination.y);
-		graphic.setStroke(new BasicStroke());
-
-		Point center = new Point((coords.x + destination.x)/2 , (coords.y + destination.y)/2);
-		if (link == hover)
-			graphic.setFont(new Font("sans serif", Font.BOLD, 12));
-		else
-			graphic.setFont(new Font("sans serif", Font.PLAIN, 12));
-
+		int departure = link.getDeparture().getId();
+		int destination = link.getDestination().getId();
+		
+		int centerX = (screenX[departure] + screenX[destination])/2;
+		int centerY = (screenY[departure] + screenY[destination])/2;
+		if (!isVisible(centerX, centerY))
+			return;
+		
+		int distance = link.getDistance();
+		if (distance >= distanceLabels.length)
+			measureDistances(distance);
+		
 		graphic.setColor(Color.BLACK);
-		String info = Integer.toString(link.getDistance());
-		graphic.drawString(info, center.x - graphic.getFontMetrics().getDescent()*info.length()/2, center.y-10);
-
-		if (link == hover)
-			graphic.setFont(new Font("sans serif", Font.PLAIN, 12));
+		if (link == hover) {
+			graphic.setFont(BOLD_FONT);
+			graphic.drawString(distanceLabels[distance], centerX - boldDistanceWidths[distance]/2, centerY-10);
+		} else {
+			graphic.setFont(PLAIN_FONT);
+			graphic.drawString(distanceLabels[distance], centerX - distanceWidths[distance]/2, centerY-10);
+		}
 	}
 	
 	/**
@@ -113,30 +342,32 @@ public class Canvas extends JPanel {
 	 * @param node The <code>Node</code> we'll draw
 	 */
 	public void drawNode(Node node) {
-		Point coords = positions.get(node.getName());
+		int id = node.getId();
+		int x = screenX[id];
+		int y = screenY[id];
 		
-		graphic.setColor(new Color(248, 244, 244));
-		graphic.fillOval(coords.x - 15,coords.y - 15, 30, 30);
+		graphic.setColor(NODE_BACKGROUND);
+		graphic.fillOval(x - 15, y - 15, 30, 30);
 		
 		graphic.setColor(Color.BLACK);
 		if (selected[0] == node || selected[1] == node) {
 			if (node == hover) {
-				graphic.setColor(new Color(248, 244, 244));
-				graphic.fillOval(coords.x - 20,coords.y - 20, 40, 40);
+				graphic.setColor(NODE_BACKGROUND);
+				graphic.fillOval(x - 20, y - 20, 40, 40);
 				graphic.setColor(Color.BLACK);
-				graphic.drawOval(coords.x - 20,coords.y - 20, 40, 40);
+				graphic.drawOval(x - 20, y - 20, 40, 40);
 			} else {
-				graphic.drawOval(coords.x - 15,coords.y - 15, 30, 30);
+				graphic.drawOval(x - 15, y - 15, 30, 30);
 			}
 		}
 		
 		if (node == hover)
-			graphic.drawImage(node.getType().getImage(), coords.x - 20, coords.y - 20, 40, 40, null);
+			graphic.drawImage(node.getType().getIcon(40), x - 20, y - 20, null);
 		else
-			graphic.drawImage(node.getType().getImage(), coords.x - 15, coords.y - 15, 30, 30, null);
+			graphic.drawImage(node.getType().getIcon(30), x - 15, y - 15, null);
 		
-		graphic.setFont(new Font("sans serif", Font.PLAIN, 12));
-		graphic.drawString(node.getName(), coords.x - graphic.getFontMetrics().getDescent()*node.getName().length(), coords.y-20);
+		graphic.setFont(PLAIN_FONT);
+		graphic.drawString(node.getName(), x - nameWidths[id]/2, y - 20);
 	}
 	
 	/**
@@ -145,8 +376,9 @@ public class Canvas extends JPanel {
 	 */
 	public Node getNode(Point pos){
 		for(Node node : nodesDisplay){
-			Point coords = positions.get(node.getName());
-			if (coords.distance(pos.x, pos.y) < 20 && nodesType.contains(node.getType())){
+			int dx = screenX[node.getId()] - pos.x;
+			int dy = screenY[node.getId()] - pos.y;
+			if (dx*dx + dy*dy < 20*20 && nodesType.accepts(node.getType())){
 				return node;
 			}
 		}
@@ -160,11 +392,12 @@ public class Canvas extends JPanel {
 	public Link getLink(Point pos){
 		for(Link link : linksDisplay){
 			
-			Point departure = positions.get(link.getDeparture().getName());
-			Point destination = positions.get(link.getDestination().getName());
+			int departure = link.getDeparture().getId();
+			int destination = link.getDestination().getId();
 			
-			Point center = new Point((departure.x + destination.x)/2 , (departure.y + destination.y)/2);
-			if (center.distance(pos.x, pos.y) < 30){
+			int dx = (screenX[departure] + screenX[destination])/2 - pos.x;
+			int dy = (screenY[departure] + screenY[destination])/2 - pos.y;
+			if (dx*dx + dy*dy < 30*30){
 				return link;
 			}
 		}
@@ -176,17 +409,121 @@ public class Canvas extends JPanel {
 	 */
 	public void initNodes(List<Node> nodes){
 		nodesList = nodes;
+		
+		int size = 0;
+		for (Node node : nodes)
+			size = Math.max(size, node.getId() + 1);
+		screenX = new int[size];
+		screenY = new int[size];
+		nameWidths = new int[size];
+		
+		FontMetrics metrics = getPlainMetrics();
+		for (Node node : nodes)
+			nameWidths[node.getId()] = metrics.stringWidth(node.getName());
+		
+		markDisplayed();
+		sceneValid = false;
 		setNodesLocation();
 	}
 	
 	/**
-	 * Determines the position of all the <code>Nodes</code> we have to display according to their ratios
+	 * Determines the position of all the <code>Nodes</code> we have to display according to their ratios and the view transform
 	 */
 	public void setNodesLocation(){
+		double scaleX = zoom * getWidth();
+		double scaleY = zoom * getHeight();
 		for (Node node : nodesList) {
-			Point center = new Point((int)(getWidth() * node.getRatioX()) , (int)(getHeight() * node.getRatioY()));
-			positions.put(node.getName(), center);
+			screenX[node.getId()] = (int)(panX + scaleX * node.getRatioX());
+			screenY[node.getId()] = (int)(panY + scaleY * node.getRatioY());
 		}
+		layoutWidth = getWidth();
+		layoutHeight = getHeight();
+		layoutValid = true;
+	}
+	
+	/**
+	 * Creates the labels of all the distances up to <code>distance</code> and measures their widths
+	 * @param distance The highest distance we need a label for
+	 */
+	private void measureDistances(int distance) {
+		int size = Math.max(distance + 1, 2 * distanceLabels.length);
+		int start = distanceLabels.length;
+		distanceLabels = Arrays.copyOf(distanceLabels, size);
+		distanceWidths = Arrays.copyOf(distanceWidths, size);
+		boldDistanceWidths = Arrays.copyOf(boldDistanceWidths, size);
+		
+		FontMetrics plain = getPlainMetrics();
+		FontMetrics bold = getBoldMetrics();
+		for (int i = start; i < size; i++) {
+			distanceLabels[i] = Integer.toString(i);
+			distanceWidths[i] = plain.stringWidth(distanceLabels[i]);
+			boldDistanceWidths[i] = bold.stringWidth(distanceLabels[i]);
+		}
+	}
+	
+	/**
+	 * @return Returns the metrics of the font used by the labels
+	 */
+	private FontMetrics getPlainMetrics() {
+		if (plainMetrics == null)
+			plainMetrics = getFontMetrics(PLAIN_FONT);
+		return plainMetrics;
+	}
+	
+	/**
+	 * @return Returns the metrics of the font used by the hovered labels
+	 */
+	private FontMetrics getBoldMetrics() {
+		if (boldMetrics == null)
+			boldMetrics = getFontMetrics(BOLD_FONT);
+		return boldMetrics;
+	}
+	
+	/**
+	 * @return Returns the affine transform mapping the ratios of the <code>Nodes</code> to the coordinates of the visualization
+	 */
+	public AffineTransform getViewTransform() {
+		AffineTransform view = AffineTransform.getTranslateInstance(panX, panY);
+		view.scale(zoom * getWidth(), zoom * getHeight());
+		return view;
+	}
+	
+	/**
+	 * Zooms the visualization while keeping the point <code>center</code> at the same place
+	 * @param center The coordinates of the fixed point
+	 * @param factor The factor multiplying the current zoom
+	 */
+	public void zoom(Point center, double factor) {
+		double newZoom = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+		factor = newZoom / zoom;
+		panX = center.x - (center.x - panX) * factor;
+		panY = center.y - (center.y - panY) * factor;
+		zoom = newZoom;
+		layoutValid = false;
+		repaint();
+	}
+	
+	/**
+	 * Moves the visualization
+	 * @param dx The horizontal move in pixels
+	 * @param dy The vertical move in pixels
+	 */
+	public void pan(double dx, double dy) {
+		panX += dx;
+		panY += dy;
+		layoutValid = false;
+		repaint();
+	}
+	
+	/**
+	 * Resets the zoom and the position of the visualization
+	 */
+	public void resetView() {
+		zoom = 1;
+		panX = 0;
+		panY = 0;
+		layoutValid = false;
+		repaint();
 	}
 	
 	/**
@@ -196,6 +533,8 @@ public class Canvas extends JPanel {
 	public void setDisplay(List<Node> nodes, List<Link> links) {
 		nodesDisplay = nodes;
 		linksDisplay = links;
+		markDisplayed();
+		sceneValid = false;
 		repaint();
 	}
 	
@@ -204,6 +543,8 @@ public class Canvas extends JPanel {
 	 */
 	public void setDisplayNodes(List<Node> nodes){
 		nodesDisplay = nodes;
+		markDisplayed();
+		sceneValid = false;
 		repaint();
 	}
 	
@@ -212,6 +553,7 @@ public class Canvas extends JPanel {
 	 */
 	public void setDisplayLinks(List<Link> links){
 		linksDisplay = links;
+		sceneValid = false;
 		repaint();
 	}
 	
@@ -219,14 +561,40 @@ public class Canvas extends JPanel {
 	 * @param nodesType The <code>List</code> of <code>Node</code> types we'll display in the visualization
 	 */
 	public void setNodesType(List<NodeType> nodesType) {
+		setNodesType(TypeFilter.ofNodes(nodesType));
+	}
+	
+	/**
+	 * @param nodesType The filter of the <code>Node</code> types we'll display in the visualization
+	 */
+	public void setNodesType(TypeFilter<NodeType> nodesType) {
 		this.nodesType = nodesType;
+		sceneValid = false;
+	}
+	
+	/**
+	 * Marks the displayed <code>Nodes</code> by their id
+	 */
+	private void markDisplayed() {
+		displayed = new boolean[screenX.length];
+		for (Node node: nodesDisplay)
+			if (node.getId() >= 0 && node.getId() < displayed.length)
+				displayed[node.getId()] = true;
 	}
 	
 	/**
 	 * @param linksType The <code>List</code> of <code>Link</code> types we'll display in the visualization
 	 */
 	public void setLinksType(List<LinkType> linksType) {
+		setLinksType(TypeFilter.ofLinks(linksType));
+	}
+	
+	/**
+	 * @param linksType The filter of the <code>Link</code> types we'll display in the visualization
+	 */
+	public void setLinksType(TypeFilter<LinkType> linksType) {
 		this.linksType = linksType;
+		sceneValid = false;
 	}
 	
 	/**
@@ -236,16 +604,45 @@ public class Canvas extends JPanel {
 		return hover;
 	}
 	
+	/**
+	 * @return Returns the time spent drawing the visualization
+	 */
+	public RenderStats getStats() {
+		return stats;
+	}
+	
+	/**
+	 * @param statsVisible Equals to <code>true</code> to display the frame rate and the paint time over the visualization
+	 */
+	public void setStatsVisible(boolean statsVisible) {
+		this.statsVisible = statsVisible;
+		repaint();
+	}
+	
+	/**
+	 * @return Returns <code>true</code> if some tiles of the visualization are still being rendered
+	 */
+	public boolean isRendering() {
+		return !tileCache.isIdle();
+	}
+	
 	/**
 	 * Resets the graph visualization
 	 */
 	public void reset() {
 		resetSelected();
-		nodesList.clear();
-		nodesDisplay.clear();
-		linksDisplay.clear();
-		positions.clear();
-		repaint();
+		nodesList = new ArrayList<>();
+		nodesDisplay = new ArrayList<>();
+		linksDisplay = new ArrayList<>();
+		screenX = new int[0];
+		screenY = new int[0];
+		nameWidths = new int[0];
+		displayed = new boolean[0];
+		scene = null;
+		previousScene = null;
+		sceneValid = false;
+		tileCache.clear();
+		resetView();
 	}
 	
 	/**
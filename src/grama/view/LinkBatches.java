@@ -0,0 +1,144 @@
+package grama.view;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import grama.model.Link;
+import grama.model.LinkType;
+import grama.model.Node;
+import swing.stroke.DoubleStroke;
+
+/**
+ * The class grouping the <code>Links</code> of the visualization by <code>LinkType</code> into one <code>Path2D</code> per type, so each group can be stroked at once
+ * <p>The groups are split by a grid over the visualization so a tile only draws the cells it overlaps. The shapes at a zoom level, and the outlines of the <code>DoubleStroke</code> groups which are expensive to compute, are cached until the layout changes</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public class LinkBatches {
+
+	/**
+	 * The number of cells of the grid along each axis
+	 */
+	public static final int GRID = 16;
+
+	private static final LinkType[] TYPES = LinkType.values();
+
+	// the paths in the ratio coordinates of the Nodes, indexed by cell then by type
+	private final Path2D.Float[][] paths = new Path2D.Float[GRID * GRID][TYPES.length];
+	private final Rectangle2D[][] bounds = new Rectangle2D[GRID * GRID][TYPES.length];
+	// the Links indexed by the cell of their middle, where their distance is written
+	private final List<List<Link>> cellLinks = new ArrayList<>(GRID * GRID);
+
+	// the shapes ready to be drawn of the last zoom levels used, indexed by cell times the number of types plus the type
+	private static final int CACHED_LEVELS = 2;
+	private final Map<Integer, AtomicReferenceArray<Shape>> shapes = new LinkedHashMap<>(4, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, AtomicReferenceArray<Shape>> eldest) {
+			return size() > CACHED_LEVELS;
+		}
+	};
+
+	/**
+	 * Creates the groups of <code>Links</code>, the types being filtered when they are drawn
+	 * @param links The <code>Links</code> to display
+	 */
+	public LinkBatches(List<Link> links) {
+		for (int cell = 0; cell < GRID * GRID; cell++)
+			cellLinks.add(new ArrayList<>());
+		for (Link link: links) {
+			Node departure = link.getDeparture();
+			Node destination = link.getDestination();
+			int cell = getCell((departure.getRatioX() + destination.getRatioX()) / 2, (departure.getRatioY() + destination.getRatioY()) / 2);
+			int type = link.getType().ordinal();
+			cellLinks.get(cell).add(link);
+
+			Path2D.Float path = paths[cell][type];
+			if (path == null)
+				path = paths[cell][type] = new Path2D.Float();
+			path.moveTo(departure.getRatioX(), departure.getRatioY());
+			path.lineTo(destination.getRatioX(), destination.getRatioY());
+		}
+
+		for (int cell = 0; cell < paths.length; cell++)
+			for (int type = 0; type < TYPES.length; type++)
+				if (paths[cell][type] != null)
+					bounds[cell][type] = paths[cell][type].getBounds2D();
+	}
+
+	/**
+	 * @param x The horizontal ratio of a point
+	 * @param y The vertical ratio of a point
+	 * @return Returns the index of the cell containing the point
+	 */
+	public static int getCell(double x, double y) {
+		int column = Math.max(0, Math.min(GRID - 1, (int)(x * GRID)));
+		int row = Math.max(0, Math.min(GRID - 1, (int)(y * GRID)));
+		return row * GRID + column;
+	}
+
+	/**
+	 * @param cell The index of the cell
+	 * @return Returns the <code>Links</code> of all types whose middle is in the cell
+	 */
+	public List<Link> getLinks(int cell) {
+		return cellLinks.get(cell);
+	}
+
+	/**
+	 * @param cell The index of the cell
+	 * @param type The type of <code>Links</code>
+	 * @param scaleX The horizontal scale of the zoom level
+	 * @param scaleY The vertical scale of the zoom level
+	 * @param area The area we draw, in the coordinates of the zoom level
+	 * @return Returns <code>true</code> if the group has <code>Links</code> which may be drawn in <code>area</code>
+	 */
+	public boolean intersects(int cell, LinkType type, double scaleX, double scaleY, Rectangle2D area) {
+		Rectangle2D box = bounds[cell][type.ordinal()];
+		// compared by hand since Rectangle2D.intersects never matches the empty boxes of horizontal or vertical groups
+		return box != null
+			&& box.getMinX() * scaleX <= area.getMaxX() && box.getMaxX() * scaleX >= area.getMinX()
+			&& box.getMinY() * scaleY <= area.getMaxY() && box.getMaxY() * scaleY >= area.getMinY();
+	}
+
+	/**
+	 * @param level The zoom level
+	 * @param scaleX The horizontal scale of the zoom level
+	 * @param scaleY The vertical scale of the zoom level
+	 * @param cell The index of the cell
+	 * @param type The type of <code>Links</code>
+	 * @return Returns the shape of the group in the coordinates of the zoom level, already stroked if the type uses a <code>DoubleStroke</code>
+	 */
+	public Shape getShape(int level, double scaleX, double scaleY, int cell, LinkType type) {
+		AtomicReferenceArray<Shape> levelShapes;
+		synchronized (shapes) {
+			levelShapes = shapes.computeIfAbsent(level, key -> new AtomicReferenceArray<>(GRID * GRID * TYPES.length));
+		}
+
+		// computed without the lock so the tiles of a new level are stroked in parallel, the first shape published being kept if two threads race
+		int index = cell * TYPES.length + type.ordinal();
+		Shape shape = levelShapes.get(index);
+		if (shape == null) {
+			shape = paths[cell][type.ordinal()].createTransformedShape(AffineTransform.getScaleInstance(scaleX, scaleY));
+			if (isOutlined(type))
+				shape = type.getStroke().createStrokedShape(shape);
+			if (!levelShapes.compareAndSet(index, null, shape))
+				shape = levelShapes.get(index);
+		}
+		return shape;
+	}
+
+	/**
+	 * @param type The type of <code>Links</code>
+	 * @return Returns <code>true</code> if the shapes of this type are cached already stroked, so they only have to be filled
+	 */
+	public static boolean isOutlined(LinkType type) {
+		return type.getStroke() instanceof DoubleStroke;
+	}
+
+}
@@ -0,0 +1,271 @@
+package grama.view;
+
+import grama.generator.GraphGenerator;
+import grama.model.Graph;
+import grama.model.LinkType;
+import grama.model.LoadGraphException;
+import grama.model.Node;
+import grama.model.NodeType;
+import grama.model.TypeFilter;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The headless benchmark of the graph visualization, drawn into offscreen images for synthetic graphs of growing sizes
+ * <p>It measures separately the rendering of the tiles, done in the background by the application, and the frames painted by the <code>Canvas</code> while the view is moved with the tiles already rendered. For each one it prints the percentiles of the time of a tile or a frame, the share of each phase and the bytes allocated</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class RenderBenchmark {
+
+	private static final int WIDTH = 1280;
+	private static final int HEIGHT = 800;
+
+	// the zoom levels of the tiles rendered, and the frames painted while moving the view in a circle
+	private static final int LEVELS = 3;
+	private static final int FRAMES = 500;
+	private static final double ZOOM = 2;
+	private static final double RADIUS = 150;
+
+	private static final long TIMEOUT = 60_000;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	private final Graph graph;
+	private final List<Node> nodes;
+
+	private RenderBenchmark(Graph graph) {
+		this.graph = graph;
+		this.nodes = graph.getNodes();
+	}
+
+	/**
+	 * Renders all the tiles of the first zoom levels, one after the other in the calling thread
+	 */
+	private void benchmarkTiles() {
+		Canvas canvas = new Canvas();
+		int size = 0;
+		for (Node node: nodes)
+			size = Math.max(size, node.getId() + 1);
+		int[] nameWidths = new int[size];
+		FontMetrics metrics = canvas.getFontMetrics(Canvas.PLAIN_FONT);
+		for (Node node: nodes)
+			nameWidths[node.getId()] = metrics.stringWidth(node.getName());
+		TileCache.Scene scene = new TileCache.Scene(graph.getDistinctLinks(), TypeFilter.all(LinkType.class), nodes, TypeFilter.all(NodeType.class), nameWidths, WIDTH, HEIGHT, null);
+
+		// the first level is rendered once before the measure, to compile the drawing code
+		RenderStats stats = new RenderStats();
+		renderLevel(scene, 0, stats, null);
+		stats.reset();
+
+		Series series = new Series(String.format("Tuiles des niveaux 0 à %d", LEVELS - 1), stats);
+		for (int level = 0; level < LEVELS; level++)
+			renderLevel(scene, level, stats, series);
+		series.print(RenderStats.Phase.LINKS, RenderStats.Phase.NODES, RenderStats.Phase.LABELS);
+	}
+
+	/**
+	 * @param scene The state of the visualization
+	 * @param level The zoom level
+	 * @param stats The measures of the phases
+	 * @param series The measures of the tiles, may be <code>null</code>
+	 */
+	private static void renderLevel(TileCache.Scene scene, int level, RenderStats stats, Series series) {
+		int columns = (int)Math.ceil(WIDTH * (double)(1 << level) / TileCache.TILE_SIZE);
+		int rows = (int)Math.ceil(HEIGHT * (double)(1 << level) / TileCache.TILE_SIZE);
+		for (int x = 0; x < columns; x++) {
+			for (int y = 0; y < rows; y++) {
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				TileCache.renderTile(scene, level, x, y, stats);
+				if (series != null)
+					series.add(System.nanoTime() - start, allocatedBytes() - bytes);
+			}
+		}
+	}
+
+	/**
+	 * Paints the frames of the <code>Canvas</code> while the view is moved in a circle, once the tiles of the whole move are rendered
+	 * @throws InterruptedException If the thread is interrupted while the tiles are rendered
+	 */
+	private void benchmarkFrames() throws InterruptedException {
+		Canvas canvas = new Canvas();
+		canvas.setSize(WIDTH, HEIGHT);
+		canvas.setNodesType(TypeFilter.all(NodeType.class));
+		canvas.setLinksType(TypeFilter.all(LinkType.class));
+		canvas.initNodes(nodes);
+		canvas.setDisplay(nodes, graph.getDistinctLinks());
+		canvas.zoom(new Point(WIDTH / 2, HEIGHT / 2), ZOOM);
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		for (int round = 0; round < 2; round++) {
+			for (int frame = 0; frame < FRAMES; frame++) {
+				move(canvas, frame);
+				paint(canvas, image);
+				awaitTiles(canvas);
+			}
+		}
+
+		RenderStats stats = canvas.getStats();
+		stats.reset();
+		Series series = new Series(String.format("Images de %dx%d", WIDTH, HEIGHT), stats);
+		for (int frame = 0; frame < FRAMES; frame++) {
+			move(canvas, frame);
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			paint(canvas, image);
+			series.add(System.nanoTime() - start, allocatedBytes() - bytes);
+		}
+		series.print(RenderStats.Phase.TILES, RenderStats.Phase.LABELS, RenderStats.Phase.NODES);
+		if (stats.getNanos(RenderStats.Phase.LINKS) > 0)
+			System.out.println("    des tuiles manquaient, elles ont été rendues pendant la mesure");
+	}
+
+	/**
+	 * Moves the view to the next position of the circle
+	 * @param canvas The visualization
+	 * @param frame The number of the frame
+	 */
+	private static void move(Canvas canvas, int frame) {
+		double previous = 2 * Math.PI * frame / FRAMES;
+		double next = 2 * Math.PI * (frame + 1) / FRAMES;
+		canvas.pan(RADIUS * (Math.cos(next) - Math.cos(previous)), RADIUS * (Math.sin(next) - Math.sin(previous)));
+	}
+
+	/**
+	 * @param canvas The visualization
+	 * @param image The image the frame is painted into
+	 */
+	private static void paint(Canvas canvas, BufferedImage image) {
+		Graphics2D graphic = image.createGraphics();
+		canvas.paint(graphic);
+		graphic.dispose();
+	}
+
+	/**
+	 * Waits until all the tiles requested by the <code>Canvas</code> are rendered
+	 * @param canvas The visualization
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	private static void awaitTiles(Canvas canvas) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (canvas.isRendering() && System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+	}
+
+	/**
+	 * @return Returns the number of bytes allocated by the current thread since it started
+	 */
+	private static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * The measures of a series of tiles or frames
+	 */
+	private static final class Series {
+
+		private final String name;
+		private final RenderStats stats;
+		private long[] times = new long[64];
+		private int count = 0;
+		private long bytes = 0;
+
+		Series(String name, RenderStats stats) {
+			this.name = name;
+			this.stats = stats;
+		}
+
+		/**
+		 * @param time The time of a tile or a frame in nanoseconds
+		 * @param allocated The bytes allocated by the tile or the frame
+		 */
+		void add(long time, long allocated) {
+			if (count == times.length)
+				times = Arrays.copyOf(times, 2 * count);
+			times[count++] = time;
+			bytes += allocated;
+		}
+
+		/**
+		 * Prints the percentiles, the phases and the allocations
+		 * @param phases The phases measured in the series
+		 */
+		void print(RenderStats.Phase... phases) {
+			long[] sorted = Arrays.copyOf(times, count);
+			Arrays.sort(sorted);
+			long total = 0;
+			for (long time: sorted)
+				total += time;
+
+			System.out.printf(Locale.ROOT, "  %s (%d) : p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n", name, count, percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99), sorted[count - 1] / 1e6);
+
+			long phasesTotal = 0;
+			for (RenderStats.Phase phase: phases)
+				phasesTotal += stats.getNanos(phase);
+			StringBuilder line = new StringBuilder("   ");
+			for (RenderStats.Phase phase: phases) {
+				long nanos = stats.getNanos(phase);
+				line.append(String.format(Locale.ROOT, " %s %.3f ms (%.0f %%)", phase, nanos / 1e6 / count, phasesTotal > 0 ? 100.0 * nanos / phasesTotal : 0));
+			}
+			System.out.println(line);
+
+			System.out.printf(Locale.ROOT, "    %.1f Ko alloués en moyenne, %.1f Mo/s%n", bytes / 1024.0 / count, total > 0 ? bytes / (1024.0 * 1024.0) / (total / 1e9) : 0);
+		}
+
+		/**
+		 * @param sorted The sorted times
+		 * @param rank The rank between 0 and 1
+		 * @return Returns the time at <code>rank</code> in milliseconds
+		 */
+		private static double percentile(long[] sorted, double rank) {
+			int i = (int)Math.ceil(rank * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+		}
+
+	}
+
+	/**
+	 * Measures the visualization of synthetic graphs
+	 * @param args The numbers of <code>Nodes</code> of the graphs, 1000, 10000 and 100000 by default
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		try {
+			int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : new int[] {1000, 10000, 100000};
+			for (int size: sizes) {
+				Path file = Files.createTempFile("grama-render-" + size + "-", ".csv");
+				try {
+					new GraphGenerator(size, 42).write(file);
+					Graph graph = new Graph();
+					graph.load(file.toString());
+
+					System.out.printf("Graphe de %d lieux et %d routes%n", graph.getNodes().size(), graph.getDistinctLinks().size());
+					RenderBenchmark benchmark = new RenderBenchmark(graph);
+					benchmark.benchmarkTiles();
+					benchmark.benchmarkFrames();
+				} finally {
+					Files.deleteIfExists(file);
+				}
+			}
+		} catch (LoadGraphException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("L'affichage n'a pas pu être mesuré : " + e.getMessage());
+			System.exit(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
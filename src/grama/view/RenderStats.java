@@ -0,0 +1,123 @@
+package grama.view;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class measuring the time spent drawing the graph visualization, by phase and by frame
+ * <p>The phases are added up from all the threads drawing, the <code>Canvas</code> and the tile renderers. The frames are the ones painted by the <code>Canvas</code>, the last ones being kept to compute the live frame rate</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public final class RenderStats {
+
+	/**
+	 * The phases of the drawing
+	 */
+	public enum Phase {
+		TILES("Tuiles"),
+		LINKS("Routes"),
+		NODES("Lieux"),
+		LABELS("Étiquettes");
+
+		private final String name;
+
+		Phase(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final long SECOND = 1_000_000_000L;
+	private static final int FRAMES = 256;
+
+	private final LongAdder[] phases = new LongAdder[Phase.values().length];
+
+	// the last frames in a ring, their end and their duration in nanoseconds
+	private final long[] frameEnds = new long[FRAMES];
+	private final long[] frameTimes = new long[FRAMES];
+	private long frames = 0;
+
+	public RenderStats() {
+		for (int i = 0; i < phases.length; i++)
+			phases[i] = new LongAdder();
+	}
+
+	/**
+	 * Adds the time elapsed since <code>start</code> to a phase
+	 * @param phase The phase which just ended
+	 * @param start The value of <code>System.nanoTime</code> when the phase started
+	 * @return Returns the current value of <code>System.nanoTime</code>, the start of the next phase
+	 */
+	public long record(Phase phase, long start) {
+		long now = System.nanoTime();
+		phases[phase.ordinal()].add(now - start);
+		return now;
+	}
+
+	/**
+	 * Adds a frame painted by the <code>Canvas</code>
+	 * @param start The value of <code>System.nanoTime</code> when the frame started
+	 * @param end The value of <code>System.nanoTime</code> when the frame ended
+	 */
+	public synchronized void recordFrame(long start, long end) {
+		int i = (int)(frames++ % FRAMES);
+		frameEnds[i] = end;
+		frameTimes[i] = end - start;
+	}
+
+	/**
+	 * @param phase A phase of the drawing
+	 * @return Returns the total time spent in <code>phase</code> in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phases[phase.ordinal()].sum();
+	}
+
+	/**
+	 * @return Returns the number of frames painted
+	 */
+	public synchronized long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return Returns the number of frames painted during the last second
+	 */
+	public synchronized int getFrameRate() {
+		long since = System.nanoTime() - SECOND;
+		int rate = 0;
+		for (long i = frames - 1; i >= Math.max(0, frames - FRAMES) && frameEnds[(int)(i % FRAMES)] - since > 0; i--)
+			rate++;
+		return rate;
+	}
+
+	/**
+	 * @return Returns the average time of the frames painted during the last second, or of the last frame if there was none, in milliseconds
+	 */
+	public synchronized double getPaintMillis() {
+		if (frames == 0)
+			return 0;
+		long since = System.nanoTime() - SECOND;
+		long total = frameTimes[(int)((frames - 1) % FRAMES)];
+		int count = 1;
+		for (long i = frames - 2; i >= Math.max(0, frames - FRAMES) && frameEnds[(int)(i % FRAMES)] - since > 0; i--) {
+			total += frameTimes[(int)(i % FRAMES)];
+			count++;
+		}
+		return total / (count * 1e6);
+	}
+
+	/**
+	 * Forgets all the measures
+	 */
+	public synchronized void reset() {
+		for (LongAdder phase: phases)
+			phase.reset();
+		frames = 0;
+	}
+
+}
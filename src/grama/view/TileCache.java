@@ -0,0 +1,481 @@
+package grama.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import grama.model.Link;
+import grama.model.LinkType;
+import grama.model.Node;
+import grama.model.NodeType;
+import grama.model.TypeFilter;
+
+/**
+ * The class pre-rendering the static layer of the graph visualization (the <code>Links</code> and the <code>Nodes</code>) into tiles
+ * <p>The tiles are rendered at several zoom levels by background threads and kept with a LRU eviction. Each tile is rendered progressively, the highways first, then the national roads, the departmental roads and finally the <code>Nodes</code>, and is published after each pass so something is displayed as soon as possible</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public class TileCache {
+
+	/**
+	 * The width and height in pixels of a tile
+	 */
+	public static final int TILE_SIZE = 256;
+
+	/**
+	 * The highest zoom level, the level <code>l</code> being rendered at a <code>2^l</code> scale
+	 */
+	public static final int MAX_LEVEL = 6;
+
+	private static final int MARGIN = 4;
+	private static final int NODE_MARGIN = 150;
+
+	// the rendering threads, shared by all the caches so each Canvas doesn't start its own ones
+	private static final ExecutorService WORKERS = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+		Thread thread = new Thread(runnable, "grama-tile-renderer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final int capacity;
+	private final Runnable onTileReady;
+	private final RenderStats stats;
+
+	private final Map<Key, BufferedImage> tiles;
+	// the tiles being rendered, the ones also in tiles being partially rendered
+	private final Map<Key, Job> pending = new HashMap<>();
+
+	/**
+	 * Creates a new <code>TileCache</code>
+	 * @param capacity The maximum number of tiles kept in memory
+	 * @param onTileReady Invoked from a rendering thread each time a tile becomes available
+	 */
+	public TileCache(int capacity, Runnable onTileReady) {
+		this(capacity, onTileReady, new RenderStats());
+	}
+
+	/**
+	 * Creates a new <code>TileCache</code>
+	 * @param capacity The maximum number of tiles kept in memory
+	 * @param onTileReady Invoked from a rendering thread each time a tile becomes available
+	 * @param stats The measures the time spent rendering the tiles is added to
+	 */
+	public TileCache(int capacity, Runnable onTileReady, RenderStats stats) {
+		this.capacity = capacity;
+		this.onTileReady = onTileReady;
+		this.stats = stats;
+		this.tiles = new LinkedHashMap<>(capacity, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+				return size() > TileCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * @param scene The state of the visualization the tile represents
+	 * @param level The zoom level of the tile
+	 * @param x The column of the tile
+	 * @param y The row of the tile
+	 * @return Returns the tile if it is already rendered, otherwise schedules its rendering and returns <code>null</code>
+	 */
+	public synchronized BufferedImage getTile(Scene scene, int level, int x, int y) {
+		Key key = new Key(scene.generation, level, x, y);
+		BufferedImage tile = tiles.get(key);
+		if (tile == null && !pending.containsKey(key)) {
+			Job job = new Job(scene, key);
+			pending.put(key, job);
+			WORKERS.execute(job);
+		}
+		return tile;
+	}
+
+	/**
+	 * @param scene The state of the visualization the tile represents
+	 * @param level The zoom level of the tile
+	 * @param x The column of the tile
+	 * @param y The row of the tile
+	 * @return Returns the tile if it is already rendered otherwise <code>null</code>, without scheduling anything
+	 */
+	public synchronized BufferedImage peekTile(Scene scene, int level, int x, int y) {
+		return tiles.get(new Key(scene.generation, level, x, y));
+	}
+
+	/**
+	 * Cancels the renderings in progress of the tiles which are not visible anymore, their partial tiles being dropped
+	 * @param scene The current state of the visualization
+	 * @param level The current zoom level
+	 * @param firstColumn The first visible column
+	 * @param lastColumn The last visible column
+	 * @param firstRow The first visible row
+	 * @param lastRow The last visible row
+	 */
+	public synchronized void retain(Scene scene, int level, int firstColumn, int lastColumn, int firstRow, int lastRow) {
+		Iterator<Job> iterator = pending.values().iterator();
+		while (iterator.hasNext()) {
+			Key key = iterator.next().key;
+			if (key.generation != scene.generation || key.level != level || key.x < firstColumn || key.x > lastColumn || key.y < firstRow || key.y > lastRow) {
+				iterator.remove();
+				tiles.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Drops all the tiles and cancels the pending renderings
+	 */
+	public synchronized void clear() {
+		pending.clear();
+		tiles.clear();
+	}
+
+	/**
+	 * @return Returns <code>true</code> if no tile is being rendered
+	 */
+	public synchronized boolean isIdle() {
+		return pending.isEmpty();
+	}
+
+	/**
+	 * Renders a single tile pass by pass, invoked by the rendering threads
+	 * @param job The tile we render
+	 */
+	private void render(Job job) {
+		Scene scene = job.scene;
+		Key key = job.key;
+		BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphic = tile.createGraphics();
+		try {
+			double scaleX = scene.width * (double)(1 << key.level);
+			double scaleY = scene.height * (double)(1 << key.level);
+			double originX = key.x * (double)TILE_SIZE;
+			double originY = key.y * (double)TILE_SIZE;
+
+			graphic.translate(-originX, -originY);
+			for (LinkType type: LinkType.values()) {
+				if (!isCurrent(job))
+					break;
+				if (drawLinks(graphic, scene, type, key.level, scaleX, scaleY, originX, originY, stats))
+					publish(job, copy(tile), false);
+			}
+
+			if (isCurrent(job)) {
+				graphic.translate(originX, originY);
+				drawNodes(graphic, scene, scaleX, scaleY, originX, originY, stats);
+				publish(job, tile, true);
+			}
+		} finally {
+			graphic.dispose();
+		}
+	}
+
+	/**
+	 * Renders a single tile at once in the calling thread, without caching it
+	 * @param scene The state of the visualization the tile represents
+	 * @param level The zoom level of the tile
+	 * @param x The column of the tile
+	 * @param y The row of the tile
+	 * @param stats The measures the time spent rendering the tile is added to
+	 * @return Returns the tile
+	 */
+	public static BufferedImage renderTile(Scene scene, int level, int x, int y, RenderStats stats) {
+		BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphic = tile.createGraphics();
+
+		double scaleX = scene.width * (double)(1 << level);
+		double scaleY = scene.height * (double)(1 << level);
+		double originX = x * (double)TILE_SIZE;
+		double originY = y * (double)TILE_SIZE;
+
+		graphic.translate(-originX, -originY);
+		for (LinkType type: LinkType.values())
+			drawLinks(graphic, scene, type, level, scaleX, scaleY, originX, originY, stats);
+		graphic.translate(originX, originY);
+		drawNodes(graphic, scene, scaleX, scaleY, originX, originY, stats);
+		graphic.dispose();
+		return tile;
+	}
+
+	/**
+	 * Draws the <code>Links</code> of a type overlapping a tile
+	 * @param graphic The graphics of the tile, with its origin at the top left corner of the zoom level
+	 * @param scene The state of the visualization the tile represents
+	 * @param type The type of the <code>Links</code>
+	 * @param level The zoom level of the tile
+	 * @param scaleX The horizontal scale of the zoom level
+	 * @param scaleY The vertical scale of the zoom level
+	 * @param originX The horizontal position of the tile in the zoom level
+	 * @param originY The vertical position of the tile in the zoom level
+	 * @param stats The measures the time spent is added to
+	 * @return Returns <code>true</code> if something was drawn
+	 */
+	private static boolean drawLinks(Graphics2D graphic, Scene scene, LinkType type, int level, double scaleX, double scaleY, double originX, double originY, RenderStats stats) {
+		if (!scene.linksType.accepts(type))
+			return false;
+
+		long start = System.nanoTime();
+		Rectangle2D area = new Rectangle2D.Double(originX - MARGIN, originY - MARGIN, TILE_SIZE + 2 * MARGIN, TILE_SIZE + 2 * MARGIN);
+		LinkBatches batches = scene.getBatches();
+		boolean drawn = false;
+		graphic.setColor(type.getColor());
+		graphic.setStroke(type.getStroke());
+		for (int cell = 0; cell < LinkBatches.GRID * LinkBatches.GRID; cell++) {
+			if (!batches.intersects(cell, type, scaleX, scaleY, area))
+				continue;
+
+			if (LinkBatches.isOutlined(type))
+				graphic.fill(batches.getShape(level, scaleX, scaleY, cell, type));
+			else
+				graphic.draw(batches.getShape(level, scaleX, scaleY, cell, type));
+			drawn = true;
+		}
+		stats.record(RenderStats.Phase.LINKS, start);
+		return drawn;
+	}
+
+	/**
+	 * Draws the <code>Nodes</code> overlapping a tile in their default state, then their names over them, the hovered and selected ones being drawn over by the <code>Canvas</code>
+	 * @param graphic The graphics of the tile, with its origin at the top left corner of the tile
+	 * @param scene The state of the visualization the tile represents
+	 * @param scaleX The horizontal scale of the zoom level
+	 * @param scaleY The vertical scale of the zoom level
+	 * @param originX The horizontal position of the tile in the zoom level
+	 * @param originY The vertical position of the tile in the zoom level
+	 * @param stats The measures the time spent is added to
+	 */
+	private static void drawNodes(Graphics2D graphic, Scene scene, double scaleX, double scaleY, double originX, double originY, RenderStats stats) {
+		long start = System.nanoTime();
+		int firstColumn = Math.max(0, (int)((originX - NODE_MARGIN) * LinkBatches.GRID / scaleX));
+		int lastColumn = Math.min(LinkBatches.GRID - 1, (int)((originX + TILE_SIZE + NODE_MARGIN) * LinkBatches.GRID / scaleX));
+		int firstRow = Math.max(0, (int)((originY - NODE_MARGIN) * LinkBatches.GRID / scaleY));
+		int lastRow = Math.min(LinkBatches.GRID - 1, (int)((originY + TILE_SIZE + NODE_MARGIN) * LinkBatches.GRID / scaleY));
+		List<List<Node>> cells = scene.getNodeCells();
+
+		// the names are drawn in a second pass so they stay over the neighboring icons
+		for (int pass = 0; pass < 2; pass++) {
+			boolean labels = pass == 1;
+			if (labels) {
+				graphic.setFont(Canvas.PLAIN_FONT);
+				graphic.setColor(Color.BLACK);
+			}
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					for (Node node: cells.get(row * LinkBatches.GRID + column)) {
+						if (!scene.nodesType.accepts(node.getType()))
+							continue;
+
+						int x = (int)(node.getRatioX() * scaleX) - (int)originX;
+						int y = (int)(node.getRatioY() * scaleY) - (int)originY;
+						int halfName = scene.nameWidths[node.getId()] / 2;
+						if (x + Math.max(15, halfName) < 0 || x - Math.max(15, halfName) > TILE_SIZE || y + 15 < 0 || y - 35 > TILE_SIZE)
+							continue;
+
+						if (labels) {
+							graphic.drawString(node.getName(), x - halfName, y - 20);
+						} else {
+							graphic.setColor(Canvas.NODE_BACKGROUND);
+							graphic.fillOval(x - 15, y - 15, 30, 30);
+							graphic.drawImage(node.getType().getIcon(30), x - 15, y - 15, null);
+						}
+					}
+				}
+			}
+			start = stats.record(labels ? RenderStats.Phase.LABELS : RenderStats.Phase.NODES, start);
+		}
+	}
+
+	/**
+	 * @param job A tile being rendered
+	 * @return Returns <code>true</code> if the tile is still needed, otherwise its rendering must stop
+	 */
+	private synchronized boolean isCurrent(Job job) {
+		return pending.get(job.key) == job;
+	}
+
+	/**
+	 * Makes a pass of a tile available
+	 * @param job The tile being rendered
+	 * @param tile The image of the tile, which mustn't be modified anymore
+	 * @param complete Equals to <code>true</code> if it's the last pass
+	 */
+	private void publish(Job job, BufferedImage tile, boolean complete) {
+		synchronized (this) {
+			if (!isCurrent(job))
+				return;
+			tiles.put(job.key, tile);
+			if (complete)
+				pending.remove(job.key);
+		}
+		onTileReady.run();
+	}
+
+	/**
+	 * @param image The image to copy
+	 * @return Returns a copy of <code>image</code>
+	 */
+	private static BufferedImage copy(BufferedImage image) {
+		return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+	}
+
+	/**
+	 * The rendering of a tile
+	 */
+	private final class Job implements Runnable {
+
+		private final Scene scene;
+		private final Key key;
+
+		Job(Scene scene, Key key) {
+			this.scene = scene;
+			this.key = key;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (isCurrent(this))
+					render(this);
+			} finally {
+				// still pending only if the rendering failed, its partial tile is dropped so the tile is requested again
+				synchronized (TileCache.this) {
+					if (pending.remove(key, this))
+						tiles.remove(key);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * The immutable state of the visualization rendered in the tiles, a new one must be created each time the displayed elements, their filters or the size of the visualization change
+	 * <p>The elements grouped by cells don't depend on the filters, so they are shared with the previous state when only the filters change</p>
+	 */
+	public static final class Scene {
+
+		private static int counter = 0;
+
+		private final int generation;
+		private final List<Link> links;
+		private final TypeFilter<LinkType> linksType;
+		private final List<Node> nodes;
+		private final TypeFilter<NodeType> nodesType;
+		private final int[] nameWidths;
+		private final int width;
+		private final int height;
+		private LinkBatches batches = null;
+		private List<List<Node>> nodeCells = null;
+
+		/**
+		 * @param links The <code>Links</code> to display
+		 * @param linksType The types of <code>Links</code> to display
+		 * @param nodes The <code>Nodes</code> to display
+		 * @param nodesType The types of <code>Nodes</code> to display
+		 * @param nameWidths The widths of the names of the <code>Nodes</code> indexed by their id
+		 * @param width The width of the visualization at the zoom level 0
+		 * @param height The height of the visualization at the zoom level 0
+		 * @param previous The state replaced by this one, may be <code>null</code>
+		 */
+		public Scene(List<Link> links, TypeFilter<LinkType> linksType, List<Node> nodes, TypeFilter<NodeType> nodesType, int[] nameWidths, int width, int height, Scene previous) {
+			synchronized (Scene.class) {
+				this.generation = counter++;
+			}
+			this.links = links;
+			this.linksType = linksType;
+			this.nodes = nodes;
+			this.nodesType = nodesType;
+			this.nameWidths = nameWidths;
+			this.width = width;
+			this.height = height;
+			
+			if (previous != null && previous.width == width && previous.height == height) {
+				synchronized (previous) {
+					if (previous.links == links)
+						batches = previous.batches;
+					if (previous.nodes == nodes)
+						nodeCells = previous.nodeCells;
+				}
+			}
+		}
+
+		/**
+		 * @return Returns the <code>Links</code> to display grouped by type, created the first time they're needed
+		 */
+		public synchronized LinkBatches getBatches() {
+			if (batches == null)
+				batches = new LinkBatches(links);
+			return batches;
+		}
+
+		/**
+		 * @return Returns the <code>Nodes</code> to display split by the cells of the grid of <code>LinkBatches</code>, created the first time they're needed
+		 */
+		public synchronized List<List<Node>> getNodeCells() {
+			if (nodeCells == null) {
+				nodeCells = new ArrayList<>(LinkBatches.GRID * LinkBatches.GRID);
+				for (int cell = 0; cell < LinkBatches.GRID * LinkBatches.GRID; cell++)
+					nodeCells.add(new ArrayList<>());
+				for (Node node: nodes)
+					nodeCells.get(LinkBatches.getCell(node.getRatioX(), node.getRatioY())).add(node);
+			}
+			return nodeCells;
+		}
+
+		/**
+		 * @return Returns the width of the visualization at the zoom level 0
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * @return Returns the height of the visualization at the zoom level 0
+		 */
+		public int getHeight() {
+			return height;
+		}
+
+	}
+
+	/**
+	 * The identifier of a tile
+	 */
+	private static final class Key {
+
+		private final int generation;
+		private final int level;
+		private final int x;
+		private final int y;
+
+		Key(int generation, int level, int x, int y) {
+			this.generation = generation;
+			this.level = level;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(generation, level, x, y);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return generation == k.generation && level == k.level && x == k.x && y == k.y;
+		}
+
+	}
+
+}
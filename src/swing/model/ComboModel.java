@@ -1,10 +1,10 @@
 package swing.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import javax.swing.AbstractListModel;
 import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
 
 /**
  * The class representing a graph
@@ -12,9 +12,12 @@ import javax.swing.ComboBoxModel;
  * @version JDK 11.0.13
  * @param <E> The type of object the ComboBox will contain (the toString method will automatically be called to display text in the UI)
  */
-public class ComboModel<E extends Comparable> extends AbstractListModel<E> implements ComboBoxModel<E> {
+public class ComboModel<E extends Comparable<? super E>> extends AbstractListModel<E> implements ComboBoxModel<E> {
 	
-	private List<E> items = new ArrayList<>();
+	// the delay after which a typed key starts a new search
+	private static final long TYPING_DELAY = 1000;
+	
+	private SortedItems<E> items = SortedItems.empty();
 	private Object selection = null;
 	
 	/**
@@ -47,16 +50,18 @@ public class ComboModel<E extends Comparable> extends AbstractListModel<E> imple
 	 */
 	@Override
 	public void setSelectedItem(Object o) {
+		if (Objects.equals(selection, o))
+			return;
 		selection = o;
-		fireContentsChanged(this, 0, getSize() - 1);
+		// the index -1 tells the ComboBox only the selection changed
+		fireContentsChanged(this, -1, -1);
 	}
 	
 	/**
 	 * @param i The index of the element that's going to be selected
 	 */
 	public void setSelectedIndex(int i) {
-		selection = items.get(i);
-		fireContentsChanged(this, 0, getSize() - 1);
+		setSelectedItem(items.get(i));
 	}
 	
 	/**
@@ -64,18 +69,76 @@ public class ComboModel<E extends Comparable> extends AbstractListModel<E> imple
 	 * @param newItems The list of new rows
 	 */
 	public void addAll(List<E> newItems) {
-		items.clear();
-		Collections.sort(newItems);
-		items.addAll(newItems);
-		fireContentsChanged(this, 0, getSize() - 1);
+		setItems(new SortedItems<>(newItems));
+	}
+	
+	/**
+	 * Replaces the current rows by <code>newItems</code> without copying nor sorting them, so they can be shared with other models
+	 * @param newItems The sorted rows
+	 */
+	public void setItems(SortedItems<E> newItems) {
+		if (newItems == items)
+			return;
+		
+		int oldSize = items.size();
+		int newSize = newItems.size();
+		items = newItems;
+		
+		if (newSize < oldSize)
+			fireIntervalRemoved(this, newSize, oldSize - 1);
+		if (Math.min(oldSize, newSize) > 0)
+			fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+		if (newSize > oldSize)
+			fireIntervalAdded(this, oldSize, newSize - 1);
+	}
+	
+	/**
+	 * @return Returns the current rows
+	 */
+	public SortedItems<E> getItems() {
+		return items;
+	}
+	
+	/**
+	 * @param prefix The beginning of the text of the row
+	 * @return Returns the index of the first row whose text starts with <code>prefix</code> ignoring the case, or <code>-1</code> if no row matches
+	 */
+	public int indexOfPrefix(String prefix) {
+		return items.indexOfPrefix(prefix);
+	}
+	
+	/**
+	 * @return Returns a new <code>KeySelectionManager</code> selecting the rows by the keys typed in the ComboBox, with a binary search instead of testing every row
+	 */
+	public JComboBox.KeySelectionManager createKeySelectionManager() {
+		return new JComboBox.KeySelectionManager() {
+			
+			private String prefix = "";
+			private long lastTime = 0;
+			
+			@Override
+			public int selectionForKey(char key, ComboBoxModel<?> model) {
+				long time = System.currentTimeMillis();
+				prefix = (time - lastTime < TYPING_DELAY ? prefix : "") + key;
+				lastTime = time;
+				
+				int index = indexOfPrefix(prefix);
+				if (index < 0 && prefix.length() > 1) {
+					prefix = String.valueOf(key);
+					index = indexOfPrefix(prefix);
+				}
+				return index;
+			}
+		
+		};
 	}
 	
 	/**
 	 * Resets the ComboBox by clearing all the rows and selecting nothing
 	 */
 	public void reset() {
-		selection = null;
-		items.clear();
+		setSelectedItem(null);
+		setItems(SortedItems.empty());
 	}
 	
-}
\ No newline at end of file
+}
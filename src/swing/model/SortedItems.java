@@ -0,0 +1,137 @@
+package swing.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * The class representing an immutable sorted list of rows, which can be shared by several <code>ComboModels</code> since it's never modified
+ * <p>The rows can be searched by the beginning of their text, ignoring the case, through an index built the first time it's needed</p>
+ * @author VAILLON Albert
+ * @version JDK 11.0.13
+ * @param <E> The type of the rows (the toString method gives the text searched)
+ */
+public class SortedItems<E extends Comparable<? super E>> {
+
+	private static final SortedItems<?> EMPTY = new SortedItems<String>(Collections.emptyList());
+
+	private final List<E> items;
+
+	// the lower case texts of the rows sorted, and the index of the row of each text
+	private String[] keys = null;
+	private int[] positions = null;
+
+	/**
+	 * Sorts a copy of <code>items</code> by their natural order
+	 * @param items The rows
+	 */
+	public SortedItems(Collection<E> items) {
+		List<E> sorted = new ArrayList<>(items);
+		Collections.sort(sorted);
+		this.items = Collections.unmodifiableList(sorted);
+	}
+
+	/**
+	 * @param sorted The unmodifiable rows, already sorted
+	 * @param unused Distinguishes this constructor from the sorting one
+	 */
+	private SortedItems(List<E> sorted, boolean unused) {
+		this.items = sorted;
+	}
+
+	/**
+	 * @param <E> The type of the rows
+	 * @return Returns the shared empty list of rows
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends Comparable<? super E>> SortedItems<E> empty() {
+		return (SortedItems<E>)EMPTY;
+	}
+
+	/**
+	 * @return Returns the number of rows
+	 */
+	public int size() {
+		return items.size();
+	}
+
+	/**
+	 * @param i The row index
+	 * @return Returns the element at the row <code>i</code>
+	 */
+	public E get(int i) {
+		return items.get(i);
+	}
+
+	/**
+	 * @param filter The test the rows have to pass
+	 * @return Returns the rows passing <code>filter</code>, in the same order without sorting them again
+	 */
+	public SortedItems<E> filter(Predicate<? super E> filter) {
+		List<E> filtered = new ArrayList<>();
+		for (E item: items)
+			if (filter.test(item))
+				filtered.add(item);
+		return new SortedItems<>(Collections.unmodifiableList(filtered), true);
+	}
+
+	/**
+	 * @return Returns the unmodifiable sorted <code>List</code> of the rows
+	 */
+	public List<E> toList() {
+		return items;
+	}
+
+	/**
+	 * Searches the first row whose text starts with <code>prefix</code>, ignoring the case, with a binary search in the index
+	 * @param prefix The beginning of the text of the row
+	 * @return Returns the index of the row, or <code>-1</code> if no row matches
+	 */
+	public int indexOfPrefix(String prefix) {
+		index();
+		String key = prefix.toLowerCase(Locale.ROOT);
+
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keys[middle].compareTo(key) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return low < keys.length && keys[low].startsWith(key) ? positions[low] : -1;
+	}
+
+	/**
+	 * Builds the index of the lower case texts if it doesn't exist yet
+	 */
+	private synchronized void index() {
+		if (keys != null)
+			return;
+
+		String[] texts = new String[items.size()];
+		Integer[] order = new Integer[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = String.valueOf(items.get(i)).toLowerCase(Locale.ROOT);
+			order[i] = i;
+		}
+		// the sort is stable, so the rows with the same text stay in the order of the list
+		Arrays.sort(order, (a, b) -> texts[a].compareTo(texts[b]));
+
+		String[] sortedKeys = new String[texts.length];
+		int[] sortedPositions = new int[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			sortedKeys[i] = texts[order[i]];
+			sortedPositions[i] = order[i];
+		}
+		positions = sortedPositions;
+		keys = sortedKeys;
+	}
+
+}
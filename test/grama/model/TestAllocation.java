@@ -0,0 +1,94 @@
+package grama.model;
+
+import grama.view.Canvas;
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Test class for the memory allocated by the hot paths of the queries and of the visualization
+ * <p>Each operation is repeated until it's compiled, then the bytes allocated by the thread are divided by the number of calls. The maximum of an operation can be changed with the system property <code>allocation.name</code>, in bytes per call</p>
+ * @author BAUDRY Lilian
+ * @version JDK 11.0.13
+ */
+public class TestAllocation {
+
+	private static final int WARMUP = 50_000;
+	private static final int CALLS = 50_000;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	// the results are kept so the compiler doesn't remove the calls
+	private static volatile Object sink;
+	private static boolean failed = false;
+
+	/**
+	 * The operation measured, called with the number of the call
+	 */
+	private interface Operation {
+		Object run(int i) throws ItineraryException;
+	}
+
+	public static void main(String[] args) throws LoadGraphException {
+		System.setProperty("java.awt.headless", "true");
+		Graph graph = new Graph();
+		graph.load("graph.csv");
+
+		List<Node> nodes = graph.getNodes();
+		int size = nodes.size();
+		TypeFilter<NodeType> allNodes = TypeFilter.all(NodeType.class);
+		TypeFilter<LinkType> allLinks = TypeFilter.all(LinkType.class);
+
+		// the trees of all the departures are cached after the first calls, only the paths are built
+		check("getShortestItinerary", 512, i -> graph.getShortestItinerary(nodes.get(i % size), nodes.get(i / size % size), allNodes, allLinks));
+		check("getShortestDistance", 16, i -> graph.getShortestDistance(nodes.get(i % size), nodes.get(i / size % size), allNodes, allLinks));
+		check("getNeighbors", 1024, i -> graph.getNeighbors(nodes.get(i % size), 2, allNodes, allLinks));
+
+		Canvas canvas = new Canvas();
+		canvas.setSize(800, 600);
+		canvas.setNodesType(allNodes);
+		canvas.setLinksType(allLinks);
+		canvas.initNodes(nodes);
+		canvas.setDisplay(nodes, graph.getDistinctLinks());
+		// the points over the Nodes, and the ones between two Nodes over the Links
+		Point[] points = new Point[2 * size];
+		for (int i = 0; i < size; i++) {
+			Node node = nodes.get(i);
+			points[i] = new Point((int)(800 * node.getRatioX()), (int)(600 * node.getRatioY()));
+			Node next = nodes.get((i + 1) % size);
+			points[size + i] = new Point((int)(400 * (node.getRatioX() + next.getRatioX())), (int)(300 * (node.getRatioY() + next.getRatioY())));
+		}
+		check("Canvas.getNode", 128, i -> canvas.getNode(points[i % points.length]));
+		check("Canvas.getLink", 128, i -> canvas.getLink(points[i % points.length]));
+
+		if (failed)
+			System.exit(1);
+	}
+
+	/**
+	 * Measures the bytes allocated by an operation and compares them to its maximum
+	 * @param name The name of the operation
+	 * @param maximum The bytes per call allowed by default
+	 * @param operation The operation
+	 */
+	private static void check(String name, long maximum, Operation operation) {
+		maximum = Long.getLong("allocation." + name, maximum);
+		try {
+			for (int i = 0; i < WARMUP; i++)
+				sink = operation.run(i);
+
+			long before = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+			for (int i = 0; i < CALLS; i++)
+				sink = operation.run(i);
+			long bytes = (THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / CALLS;
+
+			boolean passed = bytes <= maximum;
+			failed |= !passed;
+			System.out.println(name + " : " + bytes + " bytes per call, at most " + maximum + (passed ? " : OK" : " : FAILED"));
+		} catch (ItineraryException e) {
+			failed = true;
+			System.out.println(name + " : " + e.getMessage());
+		}
+	}
+
+}
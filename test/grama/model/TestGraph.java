@@ -1,6 +1,11 @@
 package grama.model;
 
+import grama.metrics.Metrics;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Test class for Graph
@@ -34,9 +39,94 @@ public class TestGraph {
 					System.out.println("\t" + link.getDeparture()+ " -> " + link.getDestination());
 				}
 				
+				// the second search from the same departure reuses its shortest paths tree
+				graph.getShortestItinerary(portDesAlpes, graph.getNode("Lyon"));
+				System.out.println("Shortest paths trees cache : " + graph.getPathTreeCache());
+				
+				// the same query twice, the second one is read from the cache of itineraries
+				TypeFilter<NodeType> allNodes = TypeFilter.all(NodeType.class);
+				TypeFilter<LinkType> allLinks = TypeFilter.all(LinkType.class);
+				for (int i = 0; i < 2; i++)
+					System.out.println("Itinerary with a restaurant : " + graph.getDistancePath(graph.getShortestItinerary(portDesAlpes, albon, allNodes, allLinks, new CounterNodeType(0, 1, 0))) + " km");
+				System.out.println("Itineraries cache : " + graph.getRouteCache());
+				
+			} catch (ItineraryException e) {
+				System.err.println(e.getMessage());
+			}
+		}
+		
+		System.out.println("\nNodes starting with \"vi\" : " + graph.searchNodes("vi", 5));
+		System.out.println("Node named \"VENISSIEUX\" : " + graph.findNode("VENISSIEUX"));
+		System.out.println("Nodes similar to \"Vienn\" : " + graph.searchNodes("Vienn", 3));
+		System.out.println("Nodes similar to \"Lyonn\" : " + graph.searchNodes("Lyonn", 3));
+		
+		int[][] counts = graph.countNeighborsByType(2);
+		System.out.println("\nRestaurants at two jumps or less :");
+		for (Node city: graph.getNodes(NodeType.CITY))
+			System.out.println("\t" + city + " : " + counts[NodeType.RESTAURANT.ordinal()][city.getId()] + " (" + city.getTwoJumpsCount(NodeType.RESTAURANT) + ")");
+		
+		Node lyon = graph.getNode("Lyon");
+		Node chanas = graph.getNode("Chanas");
+		if (lyon != null && chanas != null && albon != null) {
+			TypeFilter<NodeType> allNodes = TypeFilter.all(NodeType.class);
+			TypeFilter<LinkType> allLinks = TypeFilter.all(LinkType.class);
+			System.out.println("\nLyon is at two jumps from Chanas : " + graph.isTwoDistance(lyon, chanas, allNodes, allLinks));
+			boolean[] pairs = graph.isTwoDistance(new int[] {lyon.getId(), lyon.getId()}, new int[] {chanas.getId(), albon.getId()}, allNodes, allLinks);
+			System.out.println("Lyon is at two jumps from Chanas, from Albon : " + pairs[0] + ", " + pairs[1]);
+		}
+		
+		if (albon != null && portDesAlpes != null) {
+			TypeFilter<NodeType> allNodes = TypeFilter.all(NodeType.class);
+			TypeFilter<LinkType> allLinks = TypeFilter.all(LinkType.class);
+			try (QueryExecutor executor = new QueryExecutor(graph, 4, 100)) {
+				System.out.println("\nDistance without the path : " + graph.getShortestDistance(portDesAlpes, albon, allNodes, allLinks) + " km");
+				List<CompletableFuture<Integer>> distances = new ArrayList<>();
+				for (int i = 0; i < 50; i++)
+					distances.add(executor.distance("Porte des Alpes", "albon", allNodes, allLinks));
+				boolean same = true;
+				for (CompletableFuture<Integer> distance: distances)
+					same &= distance.join() == graph.getShortestDistance(portDesAlpes, albon, allNodes, allLinks);
+				System.out.println("Same distance from 4 threads : " + same);
+				System.out.println("Neighbors of Albon at one jump : " + executor.neighbors("Albon", 1, allNodes, allLinks).join());
+				System.out.println("Restaurants at three jumps or less from Albon : " + graph.getNeighbors(albon, 3, TypeFilter.none(NodeType.class).with(NodeType.RESTAURANT), allLinks));
+				try {
+					executor.itinerary("Nowhere", "Albon", allNodes, allLinks).join();
+				} catch (CompletionException e) {
+					System.out.println("Unknown node : " + e.getCause().getMessage());
+				}
+			} catch (ItineraryException e) {
+				System.err.println(e.getMessage());
+			}
+			
+			Metrics metrics = new Metrics();
+			graph.setMetrics(metrics);
+			try {
+				graph.getShortestDistance(portDesAlpes, albon, allNodes, allLinks);
+				graph.getShortestItinerary(albon, portDesAlpes, allNodes, allLinks, new CounterNodeType(0, 1, 0));
+				graph.getShortestItinerary(albon, portDesAlpes, allNodes, allLinks, new CounterNodeType(0, 1, 0));
 			} catch (ItineraryException e) {
 				System.err.println(e.getMessage());
 			}
+			graph.setMetrics(null);
+			Map<String, Long> counters = metrics.getCounters();
+			System.out.println("\nDistance queries measured : " + metrics.getHistograms().get("query.distance.nanos").getCount());
+			System.out.println("Itinerary queries measured : " + metrics.getHistograms().get("query.itinerary.nanos").getCount() + ", with an objective : " + metrics.getHistograms().get("query.objective.nanos").getCount());
+			System.out.println("Nodes settled : " + (counters.get("search.settled") > 0) + ", links relaxed : " + (counters.get("search.relaxed") >= counters.get("search.settled")));
+			System.out.println("Itineraries with an objective in the cache : " + counters.get("cache.routes.hits") + " of " + (counters.get("cache.routes.hits") + counters.get("cache.routes.misses")));
+		}
+		
+		LoadReport report = new LoadReport(6);
+		graph.load("graph.csv", report);
+		System.out.println("\nRows parsed : " + report.getRows() + ", nodes : " + report.getNodes() + ", links : " + report.getLinks());
+		System.out.println("Duplicated names : " + report.getDuplicates() + ", nodes of more than 6 links : " + report.getHighDegreeNodes());
+		
+		GraphSnapshot pinned = graph.getSnapshot();
+		graph.reset();
+		System.out.println("\nNodes after the reset : " + graph.getNumberNodes() + ", in the pinned snapshot : " + pinned.getNodes().size());
+		try {
+			graph.load("missing.csv");
+		} catch (LoadGraphException e) {
+			System.out.println("Nodes after a failed loading : " + graph.getNumberNodes());
 		}
 	}
 